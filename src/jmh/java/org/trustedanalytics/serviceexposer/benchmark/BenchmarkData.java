@@ -0,0 +1,50 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer.benchmark;
+
+import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+final class BenchmarkData {
+
+    static final long SEED = 42L;
+    static final String SERVICE_TYPE = "rstudio";
+    static final String DOMAIN = ".example.com";
+    static final int INSTANCES_PER_SPACE = 10;
+
+    private BenchmarkData() {
+    }
+
+    static Map<UUID, CredentialProperties> credentials(int count) {
+        Random random = new Random(SEED);
+        Map<UUID, CredentialProperties> credentials = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            UUID guid = new UUID(random.nextLong(), random.nextLong());
+            credentials.put(guid, new CredentialProperties(true, DOMAIN, guid.toString(), space(i), "instance-" + i,
+                    "10." + random.nextInt(256) + "." + random.nextInt(256) + "." + random.nextInt(256),
+                    String.valueOf(1024 + random.nextInt(60000)), "", "login-" + i, Long.toHexString(random.nextLong())));
+        }
+        return credentials;
+    }
+
+    static String space(int instance) {
+        return new UUID(SEED, instance / INSTANCES_PER_SPACE).toString();
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialProperties;
+import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialPropertiesSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CredentialSerializationBenchmark {
+
+    private static final int ENTRIES = 100_000;
+
+    @Param({"json", "binary"})
+    private String format;
+
+    private CredentialPropertiesSerializer serializer;
+    private CredentialProperties[] credentials;
+    private byte[][] encoded;
+
+    @Setup
+    public void setUp() {
+        serializer = new CredentialPropertiesSerializer("binary".equals(format));
+        credentials = BenchmarkData.credentials(ENTRIES).values().toArray(new CredentialProperties[ENTRIES]);
+        encoded = new byte[ENTRIES][];
+        for (int i = 0; i < ENTRIES; i++) {
+            encoded[i] = serializer.serialize(credentials[i]);
+        }
+    }
+
+    @Benchmark
+    public void decode(Blackhole blackhole) {
+        for (byte[] entry : encoded) {
+            blackhole.consume(serializer.deserialize(entry));
+        }
+    }
+
+    @Benchmark
+    public void encode(Blackhole blackhole, StoredSize stored) {
+        for (CredentialProperties entry : credentials) {
+            byte[] bytes = serializer.serialize(entry);
+            stored.bytes += bytes.length;
+            stored.entries++;
+            blackhole.consume(bytes);
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class StoredSize {
+        public long bytes;
+        public long entries;
+    }
+}
@@ -0,0 +1,78 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialProperties;
+import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialsStore;
+import org.trustedanalytics.serviceexposer.keyvaluestore.InMemoryCredentialsStore;
+import org.trustedanalytics.serviceexposer.rest.CredentialsController;
+import org.trustedanalytics.serviceexposer.rest.SpaceAccessCache;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.trustedanalytics.serviceexposer.benchmark.BenchmarkData.SERVICE_TYPE;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class CredentialsInJsonBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int instances;
+
+    private ExecutorService executor;
+    private CredentialsController controller;
+    private UUID space;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        CredentialsStore<CredentialProperties> store = new InMemoryCredentialsStore<CredentialProperties>(CredentialProperties::getSpaceGuid);
+        store.putAll(SERVICE_TYPE, BenchmarkData.credentials(instances));
+        executor = Executors.newSingleThreadExecutor();
+        controller = new CredentialsController(null, store, new SpaceAccessCache(30, 10, 1000), executor, 30000);
+        space = UUID.fromString(BenchmarkData.space(instances / 2));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public Map<String, Map<String, String>> credentialsInSpace() {
+        return controller.getCredentialsInJson(SERVICE_TYPE, space);
+    }
+}
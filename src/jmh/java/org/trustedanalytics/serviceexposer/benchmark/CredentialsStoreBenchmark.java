@@ -0,0 +1,122 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialProperties;
+import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialsStore;
+import org.trustedanalytics.serviceexposer.keyvaluestore.InMemoryCredentialsStore;
+import org.trustedanalytics.serviceexposer.keyvaluestore.RedisCredentialsStore;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.trustedanalytics.serviceexposer.benchmark.BenchmarkData.SERVICE_TYPE;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class CredentialsStoreBenchmark {
+
+    private static final int LOOKUP_BATCH = 100;
+
+    @Param({"in-memory", "redis"})
+    private String store;
+
+    @Param({"1000", "10000"})
+    private int instances;
+
+    private EmbeddedRedis redis;
+    private CredentialsStore<CredentialProperties> sut;
+    private List<UUID> lookupBatch;
+    private String space;
+    private UUID putGuid;
+    private CredentialProperties putCredentials;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        if ("redis".equals(store)) {
+            redis = new EmbeddedRedis();
+            redis.flush();
+            sut = new RedisCredentialsStore<CredentialProperties>(redis.credentialsTemplate(false), redis.stringTemplate(),
+                    CredentialProperties::getSpaceGuid);
+        } else {
+            sut = new InMemoryCredentialsStore<CredentialProperties>(CredentialProperties::getSpaceGuid);
+        }
+
+        Map<UUID, CredentialProperties> credentials = BenchmarkData.credentials(instances + 1);
+        List<UUID> guids = new ArrayList<>(credentials.keySet());
+        putGuid = guids.remove(guids.size() - 1);
+        putCredentials = credentials.remove(putGuid);
+        sut.putAll(SERVICE_TYPE, credentials);
+
+        lookupBatch = guids.subList(0, Math.min(LOOKUP_BATCH, guids.size()));
+        space = BenchmarkData.space(instances / 2);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (redis != null) {
+            redis.stop();
+        }
+    }
+
+    @Benchmark
+    public List<CredentialProperties> values() {
+        return sut.values(SERVICE_TYPE);
+    }
+
+    @Benchmark
+    public List<CredentialProperties> valuesInSpace() {
+        return sut.valuesInSpace(SERVICE_TYPE, space);
+    }
+
+    @Benchmark
+    public Set<UUID> existingBatch() {
+        return sut.existing(SERVICE_TYPE, lookupBatch);
+    }
+
+    @Benchmark
+    public CredentialProperties get() {
+        return sut.get(SERVICE_TYPE, lookupBatch.get(0));
+    }
+
+    @Benchmark
+    public void putAndDelete() {
+        sut.put(SERVICE_TYPE, putGuid, putCredentials);
+        sut.delete(SERVICE_TYPE, putGuid);
+    }
+}
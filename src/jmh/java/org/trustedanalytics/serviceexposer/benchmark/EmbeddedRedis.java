@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer.benchmark;
+
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialProperties;
+import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialPropertiesSerializer;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+
+final class EmbeddedRedis {
+
+    private static final int PORT = Integer.getInteger("benchmark.redis.port", 16379);
+
+    private final RedisServer server;
+    private final JedisConnectionFactory connectionFactory;
+
+    EmbeddedRedis() throws IOException {
+        server = new RedisServer(PORT);
+        server.start();
+        connectionFactory = new JedisConnectionFactory();
+        connectionFactory.setHostName("localhost");
+        connectionFactory.setPort(PORT);
+        connectionFactory.afterPropertiesSet();
+    }
+
+    RedisTemplate<String, CredentialProperties> credentialsTemplate(boolean compact) {
+        RedisTemplate<String, CredentialProperties> template = new RedisTemplate<String, CredentialProperties>();
+        template.setConnectionFactory(connectionFactory);
+        StringRedisSerializer stringSerializer = new StringRedisSerializer();
+        CredentialPropertiesSerializer valueSerializer = new CredentialPropertiesSerializer(compact);
+        template.setKeySerializer(stringSerializer);
+        template.setValueSerializer(valueSerializer);
+        template.setHashKeySerializer(stringSerializer);
+        template.setHashValueSerializer(valueSerializer);
+        template.afterPropertiesSet();
+        return template;
+    }
+
+    StringRedisTemplate stringTemplate() {
+        StringRedisTemplate template = new StringRedisTemplate(connectionFactory);
+        template.afterPropertiesSet();
+        return template;
+    }
+
+    void flush() {
+        RedisConnection connection = connectionFactory.getConnection();
+        try {
+            connection.flushAll();
+        } finally {
+            connection.close();
+        }
+    }
+
+    void stop() {
+        connectionFactory.destroy();
+        server.stop();
+    }
+}
@@ -0,0 +1,196 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.trustedanalytics.cloud.cc.api.CcExtendedServiceInstance;
+import org.trustedanalytics.cloud.cc.api.CcMetadata;
+import org.trustedanalytics.serviceexposer.checker.CheckerJob;
+import org.trustedanalytics.serviceexposer.cluster.InMemoryLeaderElection;
+import org.trustedanalytics.serviceexposer.cluster.ShardOwnership;
+import org.trustedanalytics.serviceexposer.executor.ExecutorRegistry;
+import org.trustedanalytics.serviceexposer.executor.RejectionPolicy;
+import org.trustedanalytics.serviceexposer.executor.VirtualThreads;
+import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialProperties;
+import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialsStore;
+import org.trustedanalytics.serviceexposer.keyvaluestore.InMemoryCredentialsStore;
+import org.trustedanalytics.serviceexposer.metrics.ExposerMetrics;
+import org.trustedanalytics.serviceexposer.queue.InMemoryMessagingQueue;
+import org.trustedanalytics.serviceexposer.retriver.CredentialsRetriver;
+import org.trustedanalytics.serviceexposer.retriver.ProvisioningPipeline;
+import org.trustedanalytics.serviceexposer.retriver.ServicesRetriver;
+import org.trustedanalytics.serviceexposer.retriver.Submission;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.trustedanalytics.serviceexposer.benchmark.BenchmarkData.SERVICE_TYPE;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class ProvisioningCycleBenchmark {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProvisioningCycleBenchmark.class);
+
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    @Param({"10000"})
+    private int instances;
+
+    @Param({"5"})
+    private long ccLatencyMillis;
+
+    private boolean skipped;
+    private Map<UUID, CredentialProperties> credentials;
+    private ExecutorRegistry registry;
+    private ExecutorService checkerPool;
+    private ProvisioningPipeline pipeline;
+    private StubServicesRetriver servicesRetriver;
+    private CredentialsStore<CredentialProperties> store;
+    private CheckerJob checkerJob;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        skipped = "virtual".equals(threads) && !VirtualThreads.isSupported();
+        if (skipped) {
+            LOG.warn("Virtual threads not supported on Java {}, skipping", System.getProperty("java.version"));
+            return;
+        }
+        credentials = BenchmarkData.credentials(instances);
+        registry = new ExecutorRegistry(new ExposerMetrics());
+        checkerPool = registry.newExecutor("checker", 1, 1, RejectionPolicy.ABORT);
+        ExecutorService keyStage = "virtual".equals(threads)
+                ? registry.newVirtualExecutor("provisioning-key", 1000)
+                : registry.newExecutor("provisioning-key", 8, 100, RejectionPolicy.ABORT);
+        ExecutorService publishStage = registry.newExecutor("provisioning-publish", 1, 100, RejectionPolicy.CALLER_RUNS);
+        pipeline = new ProvisioningPipeline(keyStage, publishStage, registry.capacity(keyStage));
+        servicesRetriver = new StubServicesRetriver(credentials.keySet());
+    }
+
+    @Setup(Level.Invocation)
+    public void clearStore() {
+        if (skipped) {
+            return;
+        }
+        store = new InMemoryCredentialsStore<CredentialProperties>(CredentialProperties::getSpaceGuid);
+        CredentialsRetriver credentialsRetriver = new StubCredentialsRetriver(store, pipeline, credentials, ccLatencyMillis);
+        checkerJob = new CheckerJob(servicesRetriver, credentialsRetriver, store, Collections.singletonList(SERVICE_TYPE),
+                checkerPool, 60, null, 0, ShardOwnership.unsharded(), new InMemoryLeaderElection());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (registry != null) {
+            registry.shutdown();
+        }
+    }
+
+    @Benchmark
+    public CredentialsStore<CredentialProperties> reconcileAll() {
+        if (skipped) {
+            return null;
+        }
+        while (store.count(SERVICE_TYPE) < instances) {
+            checkerJob.run();
+            while (pipeline.inFlight() > 0) {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+            }
+        }
+        return store;
+    }
+
+    private static final class StubServicesRetriver extends ServicesRetriver {
+
+        private final Set<CcExtendedServiceInstance> serviceInstances;
+
+        StubServicesRetriver(Set<UUID> guids) {
+            super(null, Collections.emptyList());
+            Set<CcExtendedServiceInstance> instances = new HashSet<>();
+            for (UUID guid : guids) {
+                CcExtendedServiceInstance instance = new CcExtendedServiceInstance();
+                instance.setMetadata(new CcMetadata());
+                instance.getMetadata().setGuid(guid);
+                instances.add(instance);
+            }
+            this.serviceInstances = Collections.unmodifiableSet(instances);
+        }
+
+        @Override
+        public Set<CcExtendedServiceInstance> getServiceInstances(String serviceType) {
+            return serviceInstances;
+        }
+    }
+
+    private static final class StubCredentialsRetriver extends CredentialsRetriver {
+
+        private final CredentialsStore<CredentialProperties> store;
+        private final ProvisioningPipeline pipeline;
+        private final Map<UUID, CredentialProperties> credentials;
+        private final long ccLatencyMillis;
+
+        StubCredentialsRetriver(CredentialsStore<CredentialProperties> store, ProvisioningPipeline pipeline,
+                                Map<UUID, CredentialProperties> credentials, long ccLatencyMillis) {
+            super(null, store, new InMemoryMessagingQueue(), "https://api" + BenchmarkData.DOMAIN, false, pipeline);
+            this.store = store;
+            this.pipeline = pipeline;
+            this.credentials = credentials;
+            this.ccLatencyMillis = ccLatencyMillis;
+        }
+
+        @Override
+        public Submission saveCredentialsUsingEnvs(String serviceType, CcExtendedServiceInstance serviceInstance) {
+            UUID guid = serviceInstance.getMetadata().getGuid();
+            return pipeline.submit(guid,
+                    () -> retrieve(credentials.get(guid)),
+                    credential -> store.put(serviceType, guid, credential),
+                    e -> LOG.error("failed to provision " + guid, e));
+        }
+
+        private CredentialProperties retrieve(CredentialProperties credential) {
+            try {
+                Thread.sleep(ccLatencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return credential;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer.checker;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.TriggerContext;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+public class AdaptiveTrigger implements Trigger {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AdaptiveTrigger.class);
+
+    private final long minIntervalMillis;
+    private final long maxIntervalMillis;
+    private long intervalMillis;
+
+    public AdaptiveTrigger(long minIntervalSeconds, long maxIntervalSeconds) {
+        this.minIntervalMillis = TimeUnit.SECONDS.toMillis(minIntervalSeconds);
+        this.maxIntervalMillis = TimeUnit.SECONDS.toMillis(Math.max(minIntervalSeconds, maxIntervalSeconds));
+        this.intervalMillis = minIntervalMillis;
+    }
+
+    @Override
+    public synchronized Date nextExecutionTime(TriggerContext triggerContext) {
+        Date lastStart = triggerContext.lastActualExecutionTime();
+        Date lastCompletion = triggerContext.lastCompletionTime();
+        if (lastStart == null || lastCompletion == null) {
+            return new Date(System.currentTimeMillis() + intervalMillis);
+        }
+
+        long duration = lastCompletion.getTime() - lastStart.getTime();
+        long previous = intervalMillis;
+        if (duration >= intervalMillis / 2) {
+            intervalMillis = Math.min(intervalMillis * 2, maxIntervalMillis);
+        } else if (duration < intervalMillis / 8) {
+            intervalMillis = Math.max(intervalMillis / 2, minIntervalMillis);
+        }
+        if (intervalMillis != previous) {
+            LOG.info("Last run took {} ms, interval changed from {} ms to {} ms", duration, previous, intervalMillis);
+        }
+        return new Date(lastCompletion.getTime() + intervalMillis);
+    }
+
+    public synchronized long getIntervalMillis() {
+        return intervalMillis;
+    }
+}
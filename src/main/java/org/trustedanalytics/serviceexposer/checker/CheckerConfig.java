@@ -15,17 +15,26 @@
  */
 package org.trustedanalytics.serviceexposer.checker;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.web.client.RestOperations;
 import org.springframework.web.client.RestTemplate;
+import org.trustedanalytics.serviceexposer.cluster.LeaderElection;
+import org.trustedanalytics.serviceexposer.cluster.ShardOwnership;
 import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialProperties;
 import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialsStore;
+import org.trustedanalytics.serviceexposer.keyvaluestore.CursorStore;
+import org.trustedanalytics.serviceexposer.metrics.CcRequestCounter;
+import org.trustedanalytics.serviceexposer.metrics.ExposerMetrics;
 import org.trustedanalytics.serviceexposer.retriver.CredentialsRetriver;
+import org.trustedanalytics.serviceexposer.retriver.ServiceEventsRetriver;
 import org.trustedanalytics.serviceexposer.retriver.ServicesRetriver;
 
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 @Configuration
 public class CheckerConfig {
@@ -36,6 +45,27 @@ public class CheckerConfig {
     @Value("#{'${serviceTypes}'.split(',')}")
     private List<String> serviceTypes;
 
+    @Value("${checker.serviceTypeTimeoutSeconds:30}")
+    private long serviceTypeTimeoutSeconds;
+
+    @Value("${checker.incremental.enabled:false}")
+    private boolean incrementalEnabled;
+
+    @Value("${checker.incremental.fullResyncIntervalSeconds:300}")
+    private long fullResyncIntervalSeconds;
+
+    @Value("${checker.scheduling.mode:cron}")
+    private String schedulingMode;
+
+    @Value("${checker.scheduling.overlapPolicy:coalesce}")
+    private String overlapPolicy;
+
+    @Value("${checker.scheduling.minIntervalSeconds:5}")
+    private long minIntervalSeconds;
+
+    @Value("${checker.scheduling.maxIntervalSeconds:60}")
+    private long maxIntervalSeconds;
+
 
     @Bean
     protected RestOperations userRestTemplate() {
@@ -43,12 +73,23 @@ public class CheckerConfig {
     }
 
     @Bean
-    public CheckerJob checkerJob(ServicesRetriver servicesRetriver, CredentialsRetriver credentialsRetriver, CredentialsStore<CredentialProperties> store) {
-        return new CheckerJob(servicesRetriver, credentialsRetriver, store, serviceTypes);
+    public CheckerJob checkerJob(ServicesRetriver servicesRetriver, CredentialsRetriver credentialsRetriver, CredentialsStore<CredentialProperties> store,
+                                 ServiceEventsRetriver serviceEventsRetriver, CursorStore cursorStore, ShardOwnership ownership,
+                                 LeaderElection leaderElection, ExposerMetrics metrics, CcRequestCounter requestCounter,
+                                 @Qualifier("checkerPool") ExecutorService checkerPool) {
+        ServiceEventsTracker eventsTracker = incrementalEnabled
+                ? new ServiceEventsTracker(serviceEventsRetriver, servicesRetriver, cursorStore, serviceTypes)
+                : null;
+        CheckerJob checkerJob = new CheckerJob(servicesRetriver, credentialsRetriver, store, serviceTypes, checkerPool, serviceTypeTimeoutSeconds,
+                eventsTracker, fullResyncIntervalSeconds, ownership, leaderElection);
+        checkerJob.setMetrics(metrics);
+        checkerJob.setRequestCounter(requestCounter);
+        return checkerJob;
     }
 
     @Bean(initMethod = "start")
-    public CheckerScheduler checkerScheduler(CheckerJob checkerJob) {
-        return new CheckerScheduler(checkerJob, checkerTriggerExpression);
+    public CheckerScheduler checkerScheduler(CheckerJob checkerJob, @Qualifier("checkerTaskScheduler") TaskScheduler taskScheduler) {
+        return new CheckerScheduler(checkerJob, taskScheduler, checkerTriggerExpression, schedulingMode,
+                OverlapPolicy.valueOf(overlapPolicy.toUpperCase()), minIntervalSeconds, maxIntervalSeconds);
     }
 }
@@ -17,16 +17,32 @@ package org.trustedanalytics.serviceexposer.checker;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.trustedanalytics.cloud.cc.api.CcExtendedServiceInstance;
+import org.trustedanalytics.serviceexposer.cluster.LeaderElection;
+import org.trustedanalytics.serviceexposer.cluster.ShardOwnership;
 import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialProperties;
 import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialsStore;
+import org.trustedanalytics.serviceexposer.metrics.CcRequestCounter;
+import org.trustedanalytics.serviceexposer.metrics.ExposerMetrics;
 import org.trustedanalytics.serviceexposer.retriver.CredentialsRetriver;
 import org.trustedanalytics.serviceexposer.retriver.ServicesRetriver;
+import org.trustedanalytics.serviceexposer.retriver.Submission;
 
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 public class CheckerJob {
@@ -37,32 +53,203 @@ public class CheckerJob {
     private final CredentialsRetriver credentialsRetriver;
     private final ServicesRetriver servicesRetriver;
     private final List<String> serviceTypes;
+    private final ExecutorService executor;
+    private final long serviceTypeTimeoutSeconds;
+    private final ServiceEventsTracker eventsTracker;
+    private final long fullResyncIntervalMillis;
+    private final ShardOwnership ownership;
+    private final LeaderElection leaderElection;
+    private final Set<String> serviceTypesInProgress = ConcurrentHashMap.newKeySet();
+    private volatile long lastFullResync;
+    private volatile boolean leading;
+    private ExposerMetrics metrics = new ExposerMetrics();
+    private CcRequestCounter requestCounter = new CcRequestCounter(metrics);
 
-    @Autowired
-    public CheckerJob(ServicesRetriver servicesRetriver, CredentialsRetriver credentialsRetriver, CredentialsStore<CredentialProperties> store, List<String> serviceTypes) {
+    public CheckerJob(ServicesRetriver servicesRetriver, CredentialsRetriver credentialsRetriver, CredentialsStore<CredentialProperties> store, List<String> serviceTypes,
+                      ExecutorService executor, long serviceTypeTimeoutSeconds, ServiceEventsTracker eventsTracker, long fullResyncIntervalSeconds,
+                      ShardOwnership ownership, LeaderElection leaderElection) {
         this.servicesRetriver = servicesRetriver;
         this.credentialsRetriver = credentialsRetriver;
         this.store = store;
         this.serviceTypes = serviceTypes;
+        this.executor = executor;
+        this.serviceTypeTimeoutSeconds = serviceTypeTimeoutSeconds;
+        this.eventsTracker = eventsTracker;
+        this.fullResyncIntervalMillis = TimeUnit.SECONDS.toMillis(fullResyncIntervalSeconds);
+        this.ownership = ownership;
+        this.leaderElection = leaderElection;
 
         for (String serviceType : serviceTypes) {
-            store.cleanStore(serviceType);
+            try {
+                LOG.info("Found {} stored {} service instances", store.count(serviceType), serviceType);
+            } catch (Exception e) {
+                LOG.error("failed to load stored " + serviceType + " service instances", e);
+            }
         }
     }
 
     public void run() {
-        for (String serviceType : serviceTypes) {
+        if (!leaderElection.isLeader()) {
+            if (leading) {
+                LOG.info("No longer the checker leader, reconciliation paused");
+            }
+            leading = false;
+            return;
+        }
+        long start = System.currentTimeMillis();
+        AtomicLong ccRequests = new AtomicLong();
+        requestCounter.countInto(ccRequests, () -> {
+            if (!leading) {
+                leading = true;
+                resumeFromStoredState(start);
+            }
+            credentialsRetriver.invalidateServiceKeys();
+            if (eventsTracker == null || start - lastFullResync >= fullResyncIntervalMillis) {
+                runFullResync(start);
+            } else {
+                runIncremental(start);
+            }
+        });
+        long elapsed = System.currentTimeMillis() - start;
+        metrics.increment("checker.cycles");
+        metrics.recordTime("checker.cycle", elapsed);
+        metrics.submit("checker.cycle.ccRequests", ccRequests.get());
+        LOG.info("Checking services finished in {} ms", elapsed);
+    }
+
+    public void setMetrics(ExposerMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void setRequestCounter(CcRequestCounter requestCounter) {
+        this.requestCounter = requestCounter;
+    }
+
+    private void resumeFromStoredState(long start) {
+        lastFullResync = 0;
+        if (eventsTracker != null) {
+            try {
+                if (eventsTracker.hasCursor()) {
+                    lastFullResync = start;
+                    LOG.info("Resuming incremental checking from the stored service events cursor");
+                }
+            } catch (Exception e) {
+                LOG.error("failed to read service events cursor", e);
+            }
+        }
+    }
+
+    private void runFullResync(long start) {
+        if (eventsTracker != null) {
+            try {
+                eventsTracker.reset();
+                lastFullResync = start;
+            } catch (Exception e) {
+                LOG.error("failed to reset service events cursor", e);
+            }
+        }
+        checkServiceTypes(serviceTypes);
+    }
+
+    private void runIncremental(long start) {
+        ServiceInstanceChanges changes;
+        try {
+            changes = eventsTracker.poll();
+        } catch (Exception e) {
+            LOG.error("failed to poll service events, falling back to full resync", e);
+            runFullResync(start);
+            return;
+        }
+
+        Set<UUID> deleted = changes.getDeletedServiceInstances().stream()
+                .filter(ownership::owns)
+                .collect(Collectors.toSet());
+        if (!deleted.isEmpty()) {
+            metrics.increment("checker.instances.deleted", deleted.size());
+            for (String serviceType : serviceTypes) {
+                credentialsRetriver.deleteServiceInstances(serviceType, deleted);
+            }
+        }
+        checkServiceTypes(serviceTypes.stream()
+                .filter(changes.getChangedServiceTypes()::contains)
+                .collect(Collectors.toList()));
+    }
+
+    private void checkServiceTypes(Collection<String> serviceTypesToCheck) {
+        long start = System.currentTimeMillis();
+        AtomicLong ccRequests = requestCounter.currentScope();
+        Map<String, Future<?>> checks = new LinkedHashMap<>();
+        for (String serviceType : serviceTypesToCheck) {
+            if (!serviceTypesInProgress.add(serviceType)) {
+                LOG.warn("Previous check of {} services still in progress, skipping", serviceType);
+                continue;
+            }
+            try {
+                checks.put(serviceType, executor.submit(() -> requestCounter.countInto(ccRequests, () -> checkServiceType(serviceType))));
+            } catch (RejectedExecutionException e) {
+                serviceTypesInProgress.remove(serviceType);
+                metrics.increment("checker.serviceTypes.skipped");
+                LOG.warn("Checker executor saturated, skipping {} services until the next check", serviceType);
+            }
+        }
+
+        long deadline = start + TimeUnit.SECONDS.toMillis(serviceTypeTimeoutSeconds);
+        for (Map.Entry<String, Future<?>> check : checks.entrySet()) {
+            try {
+                check.getValue().get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                LOG.warn("Checking {} services exceeded {} s, continuing in background", check.getKey(), serviceTypeTimeoutSeconds);
+            } catch (ExecutionException e) {
+                LOG.error("Checking " + check.getKey() + " services failed", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void checkServiceType(String serviceType) {
+        long start = System.currentTimeMillis();
+        try {
             Set<CcExtendedServiceInstance> serviceInstances = servicesRetriver.getServiceInstances(serviceType);
-            updateCreatedServiceInstances(serviceType, serviceInstances);
+            Set<UUID> deferred = updateCreatedServiceInstances(serviceType, serviceInstances);
             updateDeletedServiceInstances(serviceType, serviceInstances);
+            if (eventsTracker != null) {
+                eventsTracker.listed(serviceType, serviceInstances.stream()
+                        .map(instance -> instance.getMetadata().getGuid())
+                        .collect(Collectors.toSet()));
+                eventsTracker.deferred(serviceType, deferred);
+            }
+            if (!deferred.isEmpty()) {
+                LOG.info("Provisioning of {} {} service instances deferred to the next check", deferred.size(), serviceType);
+            }
+            LOG.info("Checking {} services finished in {} ms", serviceType, System.currentTimeMillis() - start);
+        } finally {
+            serviceTypesInProgress.remove(serviceType);
         }
-        LOG.info("Checking services finished");
     }
 
-    public void updateCreatedServiceInstances(String serviceType, Set<CcExtendedServiceInstance> serviceInstances) {
-        for (CcExtendedServiceInstance serviceInstance : serviceInstances) {
-            credentialsRetriver.saveCredentialsUsingEnvs(serviceType, serviceInstance);
+    public Set<UUID> updateCreatedServiceInstances(String serviceType, Set<CcExtendedServiceInstance> serviceInstances) {
+        List<CcExtendedServiceInstance> ownedInstances = serviceInstances.stream()
+                .filter(instance -> ownership.owns(instance.getMetadata().getGuid()))
+                .collect(Collectors.toList());
+        Set<UUID> existingGuids = store.existing(serviceType, ownedInstances.stream()
+                .map(instance -> instance.getMetadata().getGuid())
+                .collect(Collectors.toList()));
+
+        Set<UUID> deferred = new HashSet<>();
+        for (CcExtendedServiceInstance serviceInstance : ownedInstances) {
+            UUID serviceInstanceGuid = serviceInstance.getMetadata().getGuid();
+            if (!existingGuids.contains(serviceInstanceGuid)) {
+                Submission submission = credentialsRetriver.saveCredentialsUsingEnvs(serviceType, serviceInstance);
+                if (submission == Submission.ACCEPTED) {
+                    metrics.increment("checker.instances.created");
+                } else if (submission == Submission.SATURATED) {
+                    deferred.add(serviceInstanceGuid);
+                }
+            }
         }
+        return deferred;
     }
 
     public void updateDeletedServiceInstances(String serviceType, Set<CcExtendedServiceInstance> serviceInstances) {
@@ -70,8 +257,13 @@ public class CheckerJob {
                 .map(instance -> instance.getMetadata().getGuid().toString())
                 .collect(Collectors.toSet());
 
-        for (String serviceInstanceGuid : store.getSurplusServicesGuids(serviceType, servicesGuids)) {
-            credentialsRetriver.deleteServiceInstance(serviceType, UUID.fromString(serviceInstanceGuid));
+        Set<UUID> surplusGuids = store.getSurplusServicesGuids(serviceType, servicesGuids).stream()
+                .map(UUID::fromString)
+                .filter(ownership::owns)
+                .collect(Collectors.toSet());
+        if (!surplusGuids.isEmpty()) {
+            metrics.increment("checker.instances.deleted", surplusGuids.size());
+            credentialsRetriver.deleteServiceInstances(serviceType, surplusGuids);
         }
     }
 }
@@ -17,8 +17,8 @@ package org.trustedanalytics.serviceexposer.checker;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.Trigger;
 import org.springframework.scheduling.concurrent.DefaultManagedTaskScheduler;
 import org.springframework.scheduling.support.CronTrigger;
 
@@ -26,19 +26,47 @@ public class CheckerScheduler {
 
     private static final Logger LOG = LoggerFactory.getLogger(CheckerScheduler.class);
 
+    public static final String MODE_CRON = "cron";
+    public static final String MODE_ADAPTIVE = "adaptive";
+
     private final CheckerJob checkingJob;
+    private final TaskScheduler taskScheduler;
     private final String checkerTriggerExpression;
+    private final String mode;
+    private final long minIntervalSeconds;
+    private final long maxIntervalSeconds;
+    private final SingleFlightRunner runner;
 
-    @Autowired
     public CheckerScheduler(CheckerJob checkingJob, String checkerTriggerExpression) {
+        this(checkingJob, new DefaultManagedTaskScheduler(), checkerTriggerExpression, MODE_CRON, OverlapPolicy.COALESCE, 5, 60);
+    }
+
+    public CheckerScheduler(CheckerJob checkingJob, TaskScheduler taskScheduler, String checkerTriggerExpression, String mode,
+                            OverlapPolicy overlapPolicy, long minIntervalSeconds, long maxIntervalSeconds) {
         this.checkingJob = checkingJob;
+        this.taskScheduler = taskScheduler;
         this.checkerTriggerExpression = checkerTriggerExpression;
+        this.mode = mode;
+        this.minIntervalSeconds = minIntervalSeconds;
+        this.maxIntervalSeconds = maxIntervalSeconds;
+        this.runner = new SingleFlightRunner(checkingJob::run, overlapPolicy);
     }
 
     public void start() {
         LOG.info("Preparing CheckerScheduler");
-        TaskScheduler s = new DefaultManagedTaskScheduler();
-        s.schedule(checkingJob::run, new CronTrigger(checkerTriggerExpression));
-        LOG.info("CheckerScheduler started {}", checkerTriggerExpression);
+        taskScheduler.schedule(runner, trigger());
+        LOG.info("CheckerScheduler started {}", MODE_ADAPTIVE.equalsIgnoreCase(mode)
+                ? "with adaptive interval " + minIntervalSeconds + "-" + maxIntervalSeconds + " s"
+                : checkerTriggerExpression);
+    }
+
+    public SingleFlightRunner getRunner() {
+        return runner;
+    }
+
+    private Trigger trigger() {
+        return MODE_ADAPTIVE.equalsIgnoreCase(mode)
+                ? new AdaptiveTrigger(minIntervalSeconds, maxIntervalSeconds)
+                : new CronTrigger(checkerTriggerExpression);
     }
 }
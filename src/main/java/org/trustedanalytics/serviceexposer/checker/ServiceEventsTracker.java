@@ -0,0 +1,177 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer.checker;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.trustedanalytics.cloud.cc.api.CcExtendedServicePlan;
+import org.trustedanalytics.serviceexposer.keyvaluestore.CursorStore;
+import org.trustedanalytics.serviceexposer.retriver.ServiceEventsRetriver;
+import org.trustedanalytics.serviceexposer.retriver.ServiceInstanceEvent;
+import org.trustedanalytics.serviceexposer.retriver.ServicesRetriver;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+public class ServiceEventsTracker {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ServiceEventsTracker.class);
+
+    private static final String CURSOR_NAME = "service-instance-events";
+
+    private final ServiceEventsRetriver eventsRetriver;
+    private final ServicesRetriver servicesRetriver;
+    private final CursorStore cursorStore;
+    private final List<String> serviceTypes;
+    private final Map<UUID, String> pendingCreations = new ConcurrentHashMap<>();
+    private final Set<UUID> foreignServicePlans = ConcurrentHashMap.newKeySet();
+
+    public ServiceEventsTracker(ServiceEventsRetriver eventsRetriver, ServicesRetriver servicesRetriver, CursorStore cursorStore, List<String> serviceTypes) {
+        this.eventsRetriver = eventsRetriver;
+        this.servicesRetriver = servicesRetriver;
+        this.cursorStore = cursorStore;
+        this.serviceTypes = serviceTypes;
+    }
+
+    public boolean hasCursor() {
+        return cursorStore.get(CURSOR_NAME).isPresent();
+    }
+
+    public void reset() {
+        pendingCreations.clear();
+        foreignServicePlans.clear();
+        String latest = eventsRetriver.getLatestEventTimestamp();
+        Set<UUID> appliedAtLatest = eventsRetriver.getServiceInstanceEvents(latest).stream()
+                .filter(event -> latest.equals(event.getTimestamp()))
+                .map(ServiceInstanceEvent::getEventGuid)
+                .collect(Collectors.toSet());
+        cursorStore.put(CURSOR_NAME, new EventCursor(latest, appliedAtLatest).encode());
+    }
+
+    public ServiceInstanceChanges poll() {
+        EventCursor cursor = cursorStore.get(CURSOR_NAME)
+                .map(EventCursor::decode)
+                .orElseThrow(() -> new IllegalStateException("service events cursor not initialized"));
+
+        Set<String> changedServiceTypes = new HashSet<>();
+        Set<UUID> deletedServiceInstances = new HashSet<>();
+        List<ServiceInstanceEvent> events = eventsRetriver.getServiceInstanceEvents(cursor.timestamp);
+        int applied = 0;
+        for (ServiceInstanceEvent event : events) {
+            if (!cursor.advance(event)) {
+                continue;
+            }
+            applied++;
+            UUID serviceInstanceGuid = event.getServiceInstanceGuid();
+            if (ServiceInstanceEvent.DELETE.equals(event.getType())) {
+                pendingCreations.remove(serviceInstanceGuid);
+                deletedServiceInstances.add(serviceInstanceGuid);
+            } else if (event.getServicePlanGuid() == null) {
+                changedServiceTypes.addAll(serviceTypes);
+            } else {
+                resolveServiceType(event.getServicePlanGuid())
+                        .ifPresent(serviceType -> pendingCreations.put(serviceInstanceGuid, serviceType));
+            }
+        }
+        if (applied > 0) {
+            cursorStore.put(CURSOR_NAME, cursor.encode());
+        }
+
+        changedServiceTypes.addAll(pendingCreations.values());
+        LOG.debug("service events polled: {} new events, changed types: {}", applied, changedServiceTypes);
+        return new ServiceInstanceChanges(changedServiceTypes, deletedServiceInstances);
+    }
+
+    public void listed(String serviceType, Set<UUID> serviceInstanceGuids) {
+        pendingCreations.entrySet().removeIf(pending ->
+                serviceType.equals(pending.getValue()) && serviceInstanceGuids.contains(pending.getKey()));
+    }
+
+    public void deferred(String serviceType, Set<UUID> serviceInstanceGuids) {
+        serviceInstanceGuids.forEach(serviceInstanceGuid -> pendingCreations.put(serviceInstanceGuid, serviceType));
+    }
+
+    private Optional<String> resolveServiceType(UUID servicePlanGuid) {
+        if (foreignServicePlans.contains(servicePlanGuid)) {
+            return Optional.empty();
+        }
+
+        Optional<String> serviceType = findServiceType(servicePlanGuid);
+        if (!serviceType.isPresent()) {
+            servicesRetriver.invalidateServicePlans();
+            serviceType = findServiceType(servicePlanGuid);
+        }
+        if (!serviceType.isPresent()) {
+            foreignServicePlans.add(servicePlanGuid);
+        }
+        return serviceType;
+    }
+
+    private Optional<String> findServiceType(UUID servicePlanGuid) {
+        for (String serviceType : serviceTypes) {
+            for (CcExtendedServicePlan servicePlan : servicesRetriver.getServicePlans(serviceType)) {
+                if (servicePlanGuid.equals(servicePlan.getMetadata().getGuid())) {
+                    return Optional.of(serviceType);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static final class EventCursor {
+
+        private static final String SEPARATOR = "|";
+
+        private String timestamp;
+        private final Set<UUID> appliedAtTimestamp;
+
+        private EventCursor(String timestamp, Set<UUID> appliedAtTimestamp) {
+            this.timestamp = timestamp;
+            this.appliedAtTimestamp = new HashSet<>(appliedAtTimestamp);
+        }
+
+        private boolean advance(ServiceInstanceEvent event) {
+            if (!timestamp.equals(event.getTimestamp())) {
+                timestamp = event.getTimestamp();
+                appliedAtTimestamp.clear();
+            }
+            return appliedAtTimestamp.add(event.getEventGuid());
+        }
+
+        private String encode() {
+            return timestamp + SEPARATOR + appliedAtTimestamp.stream().map(UUID::toString).collect(Collectors.joining(","));
+        }
+
+        private static EventCursor decode(String value) {
+            int separator = value.indexOf(SEPARATOR);
+            if (separator < 0) {
+                return new EventCursor(value, Collections.emptySet());
+            }
+            String applied = value.substring(separator + 1);
+            return new EventCursor(value.substring(0, separator), applied.isEmpty()
+                    ? Collections.emptySet()
+                    : Arrays.stream(applied.split(",")).map(UUID::fromString).collect(Collectors.toSet()));
+        }
+    }
+}
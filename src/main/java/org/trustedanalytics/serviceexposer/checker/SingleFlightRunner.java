@@ -0,0 +1,85 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer.checker;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class SingleFlightRunner implements Runnable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SingleFlightRunner.class);
+
+    private final Runnable job;
+    private final OverlapPolicy overlapPolicy;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicBoolean pending = new AtomicBoolean();
+    private final AtomicLong skippedTicks = new AtomicLong();
+    private final AtomicLong coalescedTicks = new AtomicLong();
+
+    public SingleFlightRunner(Runnable job, OverlapPolicy overlapPolicy) {
+        this.job = job;
+        this.overlapPolicy = overlapPolicy;
+    }
+
+    @Override
+    public void run() {
+        if (!running.compareAndSet(false, true)) {
+            overlapped();
+            return;
+        }
+        boolean coalesce = overlapPolicy == OverlapPolicy.COALESCE;
+        do {
+            try {
+                do {
+                    pending.set(false);
+                    runJob();
+                } while (coalesce && pending.get());
+            } finally {
+                running.set(false);
+            }
+        } while (coalesce && pending.get() && running.compareAndSet(false, true));
+    }
+
+    public long getSkippedTicks() {
+        return skippedTicks.get();
+    }
+
+    public long getCoalescedTicks() {
+        return coalescedTicks.get();
+    }
+
+    private void overlapped() {
+        if (overlapPolicy == OverlapPolicy.COALESCE) {
+            pending.set(true);
+            coalescedTicks.incrementAndGet();
+            LOG.debug("Previous run still in progress, tick coalesced");
+        } else {
+            skippedTicks.incrementAndGet();
+            LOG.debug("Previous run still in progress, tick skipped");
+        }
+    }
+
+    private void runJob() {
+        try {
+            job.run();
+        } catch (RuntimeException e) {
+            LOG.error(e.getMessage(), e);
+        }
+    }
+}
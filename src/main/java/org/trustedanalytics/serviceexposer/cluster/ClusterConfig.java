@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer.cluster;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+public class ClusterConfig {
+
+    @Profile("cloud")
+    @Configuration
+    public static class RedisClusterConfig {
+
+        @Value("${cluster.memberId:${vcap.application.instance_id:${random.uuid}}}")
+        private String memberId;
+
+        @Value("${cluster.memberTtlSeconds:15}")
+        private long memberTtlSeconds;
+
+        @Value("${cluster.leaderElection.leaseSeconds:15}")
+        private long leaseSeconds;
+
+        @Bean
+        ClusterMembership redisClusterMembership(StringRedisTemplate stringRedisTemplate) {
+            return new RedisClusterMembership(stringRedisTemplate, memberId, memberTtlSeconds);
+        }
+
+        @Bean(initMethod = "start", destroyMethod = "stop")
+        @ConditionalOnProperty(name = "cluster.leaderElection.enabled", havingValue = "true", matchIfMissing = true)
+        LeaderElection redisLeaderElection(StringRedisTemplate stringRedisTemplate) {
+            return new RedisLeaderElection(stringRedisTemplate, "checker", memberId, leaseSeconds);
+        }
+
+        @Bean
+        @ConditionalOnProperty(name = "cluster.leaderElection.enabled", havingValue = "false")
+        LeaderElection noLeaderElection() {
+            return new InMemoryLeaderElection();
+        }
+    }
+
+    @Profile("in-memory")
+    @Configuration
+    public static class InMemoryClusterConfig {
+
+        @Value("${cluster.memberId:local}")
+        private String memberId;
+
+        @Bean
+        ClusterMembership inMemoryClusterMembership() {
+            return new InMemoryClusterMembership(memberId);
+        }
+
+        @Bean
+        LeaderElection inMemoryLeaderElection() {
+            return new InMemoryLeaderElection();
+        }
+    }
+
+    @Configuration
+    public static class ShardingConfig {
+
+        @Value("${cluster.sharding.enabled:false}")
+        private boolean shardingEnabled;
+
+        @Value("${cluster.leaderElection.enabled:true}")
+        private boolean leaderElectionEnabled;
+
+        @Value("${cluster.heartbeatIntervalSeconds:5}")
+        private long heartbeatIntervalSeconds;
+
+        @Value("${cluster.virtualNodes:128}")
+        private int virtualNodes;
+
+        @Bean(initMethod = "start", destroyMethod = "stop")
+        @ConditionalOnProperty(name = "cluster.sharding.enabled", havingValue = "true")
+        public ClusterHeartbeat clusterHeartbeat(ClusterMembership membership) {
+            return new ClusterHeartbeat(membership, heartbeatIntervalSeconds);
+        }
+
+        @Bean
+        public ShardOwnership shardOwnership(ClusterMembership membership) {
+            if (shardingEnabled && leaderElectionEnabled) {
+                throw new IllegalStateException("cluster.sharding.enabled and cluster.leaderElection.enabled are mutually exclusive: "
+                        + "the elected leader reconciles every instance, so disable one of them");
+            }
+            return shardingEnabled ? new ShardOwnership(membership, virtualNodes) : ShardOwnership.unsharded();
+        }
+    }
+}
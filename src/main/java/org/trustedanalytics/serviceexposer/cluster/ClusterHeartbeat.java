@@ -0,0 +1,64 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer.cluster;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class ClusterHeartbeat {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ClusterHeartbeat.class);
+
+    private final ClusterMembership membership;
+    private final long heartbeatIntervalSeconds;
+    private ScheduledExecutorService executor;
+
+    public ClusterHeartbeat(ClusterMembership membership, long heartbeatIntervalSeconds) {
+        this.membership = membership;
+        this.heartbeatIntervalSeconds = heartbeatIntervalSeconds;
+    }
+
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("cluster-heartbeat-%d").setDaemon(true).build());
+        executor.scheduleWithFixedDelay(this::beat, 0, heartbeatIntervalSeconds, TimeUnit.SECONDS);
+        LOG.info("ClusterHeartbeat started for {} every {} s", membership.getLocalMemberId(), heartbeatIntervalSeconds);
+    }
+
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        try {
+            membership.leave();
+        } catch (Exception e) {
+            LOG.error(e.getMessage(), e);
+        }
+    }
+
+    private void beat() {
+        try {
+            membership.heartbeat();
+        } catch (Exception e) {
+            LOG.error("Cluster heartbeat failed", e);
+        }
+    }
+}
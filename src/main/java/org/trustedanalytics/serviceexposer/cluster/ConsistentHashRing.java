@@ -0,0 +1,52 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer.cluster;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+public class ConsistentHashRing {
+
+    private static final HashFunction HASH = Hashing.murmur3_32();
+
+    private final NavigableMap<Integer, String> ring = new TreeMap<>();
+
+    public ConsistentHashRing(Collection<String> members, int virtualNodes) {
+        for (String member : members) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash(member + "#" + i), member);
+            }
+        }
+    }
+
+    public String owner(String key) {
+        if (ring.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Integer, String> node = ring.ceilingEntry(hash(key));
+        return node != null ? node.getValue() : ring.firstEntry().getValue();
+    }
+
+    private static int hash(String value) {
+        return HASH.hashString(value, StandardCharsets.UTF_8).asInt();
+    }
+}
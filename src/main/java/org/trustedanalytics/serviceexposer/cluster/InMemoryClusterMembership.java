@@ -0,0 +1,46 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer.cluster;
+
+import java.util.Collections;
+import java.util.List;
+
+public class InMemoryClusterMembership implements ClusterMembership {
+
+    private final String memberId;
+
+    public InMemoryClusterMembership(String memberId) {
+        this.memberId = memberId;
+    }
+
+    @Override
+    public String getLocalMemberId() {
+        return memberId;
+    }
+
+    @Override
+    public void heartbeat() {
+    }
+
+    @Override
+    public void leave() {
+    }
+
+    @Override
+    public List<String> getLiveMembers() {
+        return Collections.singletonList(memberId);
+    }
+}
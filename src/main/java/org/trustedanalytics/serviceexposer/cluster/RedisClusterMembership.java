@@ -0,0 +1,79 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer.cluster;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+public class RedisClusterMembership implements ClusterMembership {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RedisClusterMembership.class);
+    private static final String MEMBERS_KEY = "service-exposer:members";
+
+    private final ZSetOperations<String, String> zSetOps;
+    private final String memberId;
+    private final long memberTtlMillis;
+    private volatile List<String> liveMembers;
+
+    public RedisClusterMembership(RedisOperations<String, String> template, String memberId, long memberTtlSeconds) {
+        this.zSetOps = template.opsForZSet();
+        this.memberId = memberId;
+        this.memberTtlMillis = TimeUnit.SECONDS.toMillis(memberTtlSeconds);
+        this.liveMembers = Collections.singletonList(memberId);
+    }
+
+    @Override
+    public String getLocalMemberId() {
+        return memberId;
+    }
+
+    @Override
+    public void heartbeat() {
+        long now = System.currentTimeMillis();
+        zSetOps.add(MEMBERS_KEY, memberId, now);
+        zSetOps.removeRangeByScore(MEMBERS_KEY, 0, now - memberTtlMillis - 1);
+        Set<String> live = zSetOps.rangeByScore(MEMBERS_KEY, now - memberTtlMillis, Double.MAX_VALUE);
+
+        List<String> members = new ArrayList<>(live);
+        if (!members.contains(memberId)) {
+            members.add(memberId);
+        }
+        Collections.sort(members);
+        if (!members.equals(liveMembers)) {
+            LOG.info("Cluster members changed: {}", members);
+        }
+        liveMembers = Collections.unmodifiableList(members);
+    }
+
+    @Override
+    public void leave() {
+        zSetOps.remove(MEMBERS_KEY, memberId);
+        LOG.info("Member {} left the cluster", memberId);
+    }
+
+    @Override
+    public List<String> getLiveMembers() {
+        return liveMembers;
+    }
+}
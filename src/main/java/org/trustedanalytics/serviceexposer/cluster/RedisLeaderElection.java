@@ -0,0 +1,110 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer.cluster;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class RedisLeaderElection implements LeaderElection {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RedisLeaderElection.class);
+
+    private static final RedisScript<Long> ACQUIRE_OR_RENEW = new DefaultRedisScript<>(
+            "local holder = redis.call('GET', KEYS[1]) " +
+            "if holder == false or holder == ARGV[1] then " +
+            "  redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2]) " +
+            "  return 1 " +
+            "end " +
+            "return 0", Long.class);
+
+    private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then " +
+            "  return redis.call('DEL', KEYS[1]) " +
+            "end " +
+            "return 0", Long.class);
+
+    private final RedisOperations<String, String> template;
+    private final List<String> leaseKey;
+    private final String memberId;
+    private final long leaseMillis;
+    private volatile long leaseValidUntil;
+    private ScheduledExecutorService executor;
+
+    public RedisLeaderElection(RedisOperations<String, String> template, String leaseName, String memberId, long leaseSeconds) {
+        this.template = template;
+        this.leaseKey = Collections.singletonList("service-exposer:leader:" + leaseName);
+        this.memberId = memberId;
+        this.leaseMillis = TimeUnit.SECONDS.toMillis(leaseSeconds);
+    }
+
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("leader-election-%d").setDaemon(true).build());
+        executor.scheduleWithFixedDelay(this::acquireOrRenew, 0, leaseMillis / 3, TimeUnit.MILLISECONDS);
+        LOG.info("Leader election started for {} as {}", leaseKey.get(0), memberId);
+    }
+
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        if (isLeader()) {
+            try {
+                template.execute(RELEASE, leaseKey, memberId);
+                LOG.info("Leadership of {} released", leaseKey.get(0));
+            } catch (Exception e) {
+                LOG.error(e.getMessage(), e);
+            }
+        }
+        leaseValidUntil = 0;
+    }
+
+    @Override
+    public boolean isLeader() {
+        return System.currentTimeMillis() < leaseValidUntil;
+    }
+
+    void acquireOrRenew() {
+        boolean wasLeader = isLeader();
+        long requestedAt = System.currentTimeMillis();
+        try {
+            Long acquired = template.execute(ACQUIRE_OR_RENEW, leaseKey, memberId, String.valueOf(leaseMillis));
+            if (acquired != null && acquired == 1L) {
+                leaseValidUntil = requestedAt + leaseMillis;
+                if (!wasLeader) {
+                    LOG.info("Leadership of {} acquired by {}", leaseKey.get(0), memberId);
+                }
+            } else {
+                leaseValidUntil = 0;
+                if (wasLeader) {
+                    LOG.warn("Leadership of {} lost by {}", leaseKey.get(0), memberId);
+                }
+            }
+        } catch (Exception e) {
+            LOG.error("Leader lease renewal failed", e);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer.cluster;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.UUID;
+
+public class ShardOwnership {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ShardOwnership.class);
+    private static final String UNSHARDED_MEMBER = "local";
+
+    private final ClusterMembership membership;
+    private final int virtualNodes;
+    private volatile Ring current;
+
+    public ShardOwnership(ClusterMembership membership, int virtualNodes) {
+        this.membership = membership;
+        this.virtualNodes = virtualNodes;
+    }
+
+    public static ShardOwnership unsharded() {
+        return new ShardOwnership(new InMemoryClusterMembership(UNSHARDED_MEMBER), 1);
+    }
+
+    public boolean owns(UUID serviceInstanceGuid) {
+        return owns(serviceInstanceGuid.toString());
+    }
+
+    public boolean owns(String key) {
+        List<String> members = membership.getLiveMembers();
+        if (members.size() <= 1) {
+            return true;
+        }
+        return membership.getLocalMemberId().equals(ring(members).owner(key));
+    }
+
+    private ConsistentHashRing ring(List<String> members) {
+        Ring ring = current;
+        if (ring == null || !ring.members.equals(members)) {
+            ring = new Ring(members, new ConsistentHashRing(members, virtualNodes));
+            current = ring;
+            LOG.info("Shard ring rebuilt for members {}", members);
+        }
+        return ring.hashRing;
+    }
+
+    private static class Ring {
+        private final List<String> members;
+        private final ConsistentHashRing hashRing;
+
+        Ring(List<String> members, ConsistentHashRing hashRing) {
+            this.members = members;
+            this.hashRing = hashRing;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer.executor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.trustedanalytics.serviceexposer.metrics.ExposerMetrics;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class ExecutorConfig {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ExecutorConfig.class);
+
+    @Autowired
+    private ExposerMetrics metrics;
+
+    @Value("#{'${serviceTypes}'.split(',')}")
+    private List<String> serviceTypes;
+
+    @Value("${executors.virtualThreads.enabled:false}")
+    private boolean virtualThreadsEnabled;
+
+    @Value("${executors.checker.threads:${checker.parallelism:0}}")
+    private int checkerThreads;
+
+    @Value("${executors.checker.queueCapacity:16}")
+    private int checkerQueueCapacity;
+
+    @Value("${executors.checker.rejectionPolicy:abort}")
+    private String checkerRejectionPolicy;
+
+    @Value("${executors.checkerScheduler.threads:1}")
+    private int checkerSchedulerThreads;
+
+    @Value("${executors.registratorScheduler.threads:1}")
+    private int registratorSchedulerThreads;
+
+    @Value("${executors.tokenRefresh.threads:1}")
+    private int tokenRefreshThreads;
+
+    @Value("${executors.provisioning.threads:${checker.provisioning.workers:8}}")
+    private int provisioningThreads;
+
+    @Value("${executors.provisioning.queueCapacity:${checker.provisioning.queueCapacity:100}}")
+    private int provisioningQueueCapacity;
+
+    @Value("${executors.provisioning.rejectionPolicy:abort}")
+    private String provisioningRejectionPolicy;
+
+    @Value("${executors.provisioning.virtualMaxConcurrency:1000}")
+    private int provisioningVirtualMaxConcurrency;
+
+    @Value("${executors.provisioningPublish.threads:1}")
+    private int provisioningPublishThreads;
+
+    @Value("${executors.provisioningPublish.queueCapacity:100}")
+    private int provisioningPublishQueueCapacity;
+
+    @Value("${executors.provisioningPublish.rejectionPolicy:caller-runs}")
+    private String provisioningPublishRejectionPolicy;
+
+    @Value("${executors.controller.threads:${controller.async.threads:16}}")
+    private int controllerThreads;
+
+    @Value("${executors.controller.queueCapacity:500}")
+    private int controllerQueueCapacity;
+
+    @Value("${executors.controller.rejectionPolicy:caller-runs}")
+    private String controllerRejectionPolicy;
+
+    @Value("${executors.controller.virtualMaxConcurrency:1000}")
+    private int controllerVirtualMaxConcurrency;
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorRegistry executorRegistry() {
+        return new ExecutorRegistry(metrics);
+    }
+
+    @Bean
+    public ThreadPoolExecutor checkerPool() {
+        int threads = checkerThreads > 0 ? checkerThreads : serviceTypes.size();
+        return executorRegistry().newExecutor("checker", threads, checkerQueueCapacity, RejectionPolicy.fromName(checkerRejectionPolicy));
+    }
+
+    @Bean
+    public TaskScheduler checkerTaskScheduler() {
+        return executorRegistry().newScheduler("checker-scheduler", checkerSchedulerThreads);
+    }
+
+    @Bean
+    public TaskScheduler registratorTaskScheduler() {
+        return executorRegistry().newScheduler("registrator-scheduler", registratorSchedulerThreads);
+    }
+
+    @Bean
+    public ThreadPoolTaskScheduler tokenRefreshTaskScheduler() {
+        return executorRegistry().newScheduler("token-refresh", tokenRefreshThreads);
+    }
+
+    @Bean
+    public ExecutorService provisioningPool() {
+        if (useVirtualThreads()) {
+            return executorRegistry().newVirtualExecutor("provisioning-key", provisioningVirtualMaxConcurrency);
+        }
+        return executorRegistry().newExecutor("provisioning-key", provisioningThreads, provisioningQueueCapacity,
+                RejectionPolicy.fromName(provisioningRejectionPolicy));
+    }
+
+    @Bean
+    public ThreadPoolExecutor provisioningPublishPool() {
+        return executorRegistry().newExecutor("provisioning-publish", provisioningPublishThreads, provisioningPublishQueueCapacity,
+                RejectionPolicy.fromName(provisioningPublishRejectionPolicy));
+    }
+
+    @Bean
+    public ExecutorService controllerPool() {
+        if (useVirtualThreads()) {
+            return executorRegistry().newVirtualExecutor("controller", controllerVirtualMaxConcurrency);
+        }
+        return executorRegistry().newExecutor("controller", controllerThreads, controllerQueueCapacity,
+                RejectionPolicy.fromName(controllerRejectionPolicy));
+    }
+
+    private boolean useVirtualThreads() {
+        if (virtualThreadsEnabled && !VirtualThreads.isSupported()) {
+            LOG.warn("Virtual threads enabled but not supported on Java {}, using platform thread pools", System.getProperty("java.version"));
+        }
+        return virtualThreadsEnabled && VirtualThreads.isSupported();
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer.executor;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.trustedanalytics.serviceexposer.metrics.ExposerMetrics;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+public class ExecutorRegistry implements PublicMetrics {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ExecutorRegistry.class);
+
+    private final ExposerMetrics metrics;
+    private final Map<String, ThreadPoolExecutor> executors = new ConcurrentSkipListMap<>();
+    private final Map<String, VirtualThreadExecutor> virtualExecutors = new ConcurrentSkipListMap<>();
+
+    public ExecutorRegistry(ExposerMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public ThreadPoolExecutor newExecutor(String name, int threads, int queueCapacity, RejectionPolicy rejectionPolicy) {
+        BlockingQueue<Runnable> queue = queueCapacity > 0 ? new ArrayBlockingQueue<>(queueCapacity) : new SynchronousQueue<>();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, queue,
+                threadFactory(name), countingRejections(name, rejectionPolicy.handler()));
+        register(name, executor);
+        LOG.info("Created executor {} with {} threads, queue capacity {} and {} rejection policy", name, threads, queueCapacity, rejectionPolicy);
+        return executor;
+    }
+
+    public VirtualThreadExecutor newVirtualExecutor(String name, int maxConcurrency) {
+        String counter = "executor." + name + ".rejected";
+        VirtualThreadExecutor executor = new VirtualThreadExecutor(VirtualThreads.threadFactory(name), maxConcurrency,
+                () -> metrics.increment(counter));
+        if (executors.containsKey(name) || virtualExecutors.putIfAbsent(name, executor) != null) {
+            throw new IllegalStateException("Executor already registered: " + name);
+        }
+        LOG.info("Created virtual thread executor {} with max concurrency {}", name, maxConcurrency);
+        return executor;
+    }
+
+    public ThreadPoolTaskScheduler newScheduler(String name, int threads) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(threads);
+        scheduler.setThreadFactory(threadFactory(name));
+        scheduler.setRejectedExecutionHandler(countingRejections(name, RejectionPolicy.ABORT.handler()));
+        scheduler.initialize();
+        register(name, scheduler.getScheduledThreadPoolExecutor());
+        LOG.info("Created scheduler {} with {} threads", name, threads);
+        return scheduler;
+    }
+
+    public int capacity(ExecutorService executor) {
+        if (executor instanceof VirtualThreadExecutor) {
+            return ((VirtualThreadExecutor) executor).getMaxConcurrency();
+        }
+        ThreadPoolExecutor pool = (ThreadPoolExecutor) executor;
+        return pool.getMaximumPoolSize() + pool.getQueue().remainingCapacity();
+    }
+
+    public void shutdown() {
+        executors.values().forEach(ThreadPoolExecutor::shutdownNow);
+        virtualExecutors.values().forEach(VirtualThreadExecutor::shutdownNow);
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        List<Metric<?>> result = new ArrayList<>();
+        for (Map.Entry<String, ThreadPoolExecutor> entry : executors.entrySet()) {
+            String prefix = "executor." + entry.getKey();
+            ThreadPoolExecutor executor = entry.getValue();
+            int active = executor.getActiveCount();
+            int remaining = executor.getQueue().remainingCapacity();
+            result.add(new Metric<Integer>("gauge." + prefix + ".active", active));
+            result.add(new Metric<Integer>("gauge." + prefix + ".poolSize", executor.getPoolSize()));
+            result.add(new Metric<Double>("gauge." + prefix + ".utilization", (double) active / executor.getCorePoolSize()));
+            result.add(new Metric<Integer>("gauge." + prefix + ".queued", executor.getQueue().size()));
+            if (remaining != Integer.MAX_VALUE) {
+                result.add(new Metric<Integer>("gauge." + prefix + ".queueRemaining", remaining));
+            }
+            result.add(new Metric<Long>("counter." + prefix + ".completed", executor.getCompletedTaskCount()));
+        }
+        for (Map.Entry<String, VirtualThreadExecutor> entry : virtualExecutors.entrySet()) {
+            String prefix = "executor." + entry.getKey();
+            VirtualThreadExecutor executor = entry.getValue();
+            int active = executor.getActiveCount();
+            result.add(new Metric<Integer>("gauge." + prefix + ".active", active));
+            result.add(new Metric<Double>("gauge." + prefix + ".utilization", (double) active / executor.getMaxConcurrency()));
+            result.add(new Metric<Long>("counter." + prefix + ".completed", executor.getCompletedTaskCount()));
+        }
+        return result;
+    }
+
+    private void register(String name, ThreadPoolExecutor executor) {
+        if (virtualExecutors.containsKey(name) || executors.putIfAbsent(name, executor) != null) {
+            throw new IllegalStateException("Executor already registered: " + name);
+        }
+    }
+
+    private RejectedExecutionHandler countingRejections(String name, RejectedExecutionHandler delegate) {
+        String counter = "executor." + name + ".rejected";
+        return (task, executor) -> {
+            metrics.increment(counter);
+            LOG.debug("Executor {} saturated, applying {}", name, delegate.getClass().getSimpleName());
+            delegate.rejectedExecution(task, executor);
+        };
+    }
+
+    private static ThreadFactory threadFactory(String name) {
+        return new ThreadFactoryBuilder().setNameFormat(name + "-%d").setDaemon(true).build();
+    }
+}
@@ -0,0 +1,151 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer.executor;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class VirtualThreadExecutor extends AbstractExecutorService {
+
+    private final ThreadFactory threadFactory;
+    private final int maxConcurrency;
+    private final Semaphore permits;
+    private final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+    private final Runnable onSaturated;
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile boolean shutdown;
+
+    public VirtualThreadExecutor(ThreadFactory threadFactory, int maxConcurrency) {
+        this(threadFactory, maxConcurrency, () -> {});
+    }
+
+    public VirtualThreadExecutor(ThreadFactory threadFactory, int maxConcurrency, Runnable onSaturated) {
+        this.threadFactory = threadFactory;
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency);
+        this.onSaturated = onSaturated;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (shutdown) {
+            throw new RejectedExecutionException("Executor has been shut down");
+        }
+        // no queue: a task arriving with every permit taken is rejected instead of parking a thread
+        if (!permits.tryAcquire()) {
+            rejected.incrementAndGet();
+            onSaturated.run();
+            throw new RejectedExecutionException("All " + maxConcurrency + " permits in use");
+        }
+        Thread thread = threadFactory.newThread(() -> runTask(task));
+        threads.add(thread);
+        try {
+            thread.start();
+        } catch (RuntimeException | Error e) {
+            threads.remove(thread);
+            permits.release();
+            throw e;
+        }
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    public long getCompletedTaskCount() {
+        return completed.get();
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        signalIfTerminated();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown();
+        threads.forEach(Thread::interrupt);
+        return Collections.emptyList();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return shutdown && threads.isEmpty();
+    }
+
+    @Override
+    public synchronized boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!isTerminated()) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        return true;
+    }
+
+    private void runTask(Runnable task) {
+        active.incrementAndGet();
+        try {
+            task.run();
+        } finally {
+            active.decrementAndGet();
+            permits.release();
+            completed.incrementAndGet();
+            finished();
+        }
+    }
+
+    private void finished() {
+        threads.remove(Thread.currentThread());
+        signalIfTerminated();
+    }
+
+    private void signalIfTerminated() {
+        if (isTerminated()) {
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+    }
+}
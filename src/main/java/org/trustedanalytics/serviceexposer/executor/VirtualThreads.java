@@ -0,0 +1,66 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer.executor;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+public final class VirtualThreads {
+
+    private static final Method OF_VIRTUAL = lookup(Thread.class, "ofVirtual");
+    private static final boolean SUPPORTED = probe();
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        return SUPPORTED;
+    }
+
+    public static ThreadFactory threadFactory(String name) {
+        if (!isSupported()) {
+            throw new UnsupportedOperationException("Virtual threads require Java 21 or newer, running on " + System.getProperty("java.version"));
+        }
+        try {
+            Object builder = OF_VIRTUAL.invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, name + "-", 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Unable to create virtual thread factory " + name, e);
+        }
+    }
+
+    private static boolean probe() {
+        if (OF_VIRTUAL == null) {
+            return false;
+        }
+        try {
+            OF_VIRTUAL.invoke(null);
+            return true;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static Method lookup(Class<?> type, String name) {
+        try {
+            return type.getMethod(name);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
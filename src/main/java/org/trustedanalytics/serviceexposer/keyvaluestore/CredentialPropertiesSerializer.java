@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer.keyvaluestore;
+
+import org.springframework.data.redis.serializer.JacksonJsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+public class CredentialPropertiesSerializer implements RedisSerializer<CredentialProperties> {
+
+    private static final byte MAGIC = (byte) 0xCE;
+    private static final byte VERSION = 1;
+    private static final byte JSON_OBJECT_START = '{';
+    private static final int NULL_LENGTH = -1;
+
+    private final RedisSerializer<CredentialProperties> jsonSerializer =
+            new JacksonJsonRedisSerializer<CredentialProperties>(CredentialProperties.class);
+    private final boolean compact;
+
+    public CredentialPropertiesSerializer(boolean compact) {
+        this.compact = compact;
+    }
+
+    @Override
+    public byte[] serialize(CredentialProperties credentials) throws SerializationException {
+        if (credentials == null) {
+            return new byte[0];
+        }
+        if (!compact) {
+            return jsonSerializer.serialize(credentials);
+        }
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(MAGIC);
+            out.writeByte(VERSION);
+            out.writeBoolean(credentials.isCredentialsExtracted());
+            writeString(out, credentials.getServiceInstaceGuid());
+            writeString(out, credentials.getSpaceGuid());
+            writeString(out, credentials.getName());
+            writeString(out, credentials.getHostName());
+            writeString(out, credentials.getIpAddress());
+            writeString(out, credentials.getPort());
+            writeString(out, credentials.getLogin());
+            writeString(out, credentials.getPassword());
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new SerializationException("Could not write credentials: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public CredentialProperties deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] == JSON_OBJECT_START) {
+            return jsonSerializer.deserialize(bytes);
+        }
+        if (bytes[0] != MAGIC) {
+            throw new SerializationException("Unknown credentials encoding");
+        }
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 1, bytes.length - 1));
+            byte version = in.readByte();
+            if (version != VERSION) {
+                throw new SerializationException("Unsupported credentials encoding version: " + version);
+            }
+            CredentialProperties credentials = new CredentialProperties();
+            credentials.setCredentialsExtracted(in.readBoolean());
+            credentials.setServiceInstaceGuid(readString(in));
+            credentials.setSpaceGuid(readString(in));
+            credentials.setName(readString(in));
+            credentials.setHostName(readString(in));
+            credentials.setIpAddress(readString(in));
+            credentials.setPort(readString(in));
+            credentials.setLogin(readString(in));
+            credentials.setPassword(readString(in));
+            return credentials;
+        } catch (IOException e) {
+            throw new SerializationException("Could not read credentials: " + e.getMessage(), e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+        byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(encoded.length);
+        out.write(encoded);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] encoded = new byte[length];
+        in.readFully(encoded);
+        return new String(encoded, StandardCharsets.UTF_8);
+    }
+}
@@ -15,7 +15,9 @@
  */
 package org.trustedanalytics.serviceexposer.keyvaluestore;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
@@ -23,15 +25,29 @@ public interface CredentialsStore<T> {
 
     void put(String serviceType, UUID serviceInstanceGuid, T code);
 
+    void putAll(String serviceType, Map<UUID, T> entries);
+
     void delete(String serviceType, UUID serviceInstanceGuid);
 
+    void deleteAll(String serviceType, Collection<UUID> serviceInstanceGuids);
+
     Boolean exists(String serviceType, UUID serviceInstanceGuid);
 
+    Set<UUID> existing(String serviceType, Collection<UUID> serviceInstanceGuids);
+
     T get(String serviceType, UUID serviceInstanceGuid);
 
+    Map<UUID, T> getAll(String serviceType, Collection<UUID> serviceInstanceGuids);
+
+    Map<UUID, T> entries(String serviceType);
+
     Set<String> getSurplusServicesGuids(String serviceType, Set<String> retrievedServiceGuids);
 
     List<T> values(String serviceType);
 
+    long count(String serviceType);
+
+    List<T> valuesInSpace(String serviceType, String spaceGuid);
+
     void cleanStore(String serviceType);
 }
@@ -19,35 +19,38 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
-import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public class InMemoryCredentialsStore<T> implements CredentialsStore<T> {
 
-    private static final Logger LOG = LoggerFactory.getLogger(RedisCredentialsStore.class);
+    private static final Logger LOG = LoggerFactory.getLogger(InMemoryCredentialsStore.class);
 
-    private final Map<String, Map<String, T>> hashOps;
+    private final ConcurrentMap<String, ConcurrentMap<String, T>> hashOps;
+    private final Function<T, String> spaceGuid;
 
-    public InMemoryCredentialsStore() {
-        this.hashOps = new HashMap<String, Map<String, T>>();
+    public InMemoryCredentialsStore(Function<T, String> spaceGuid) {
+        this.hashOps = new ConcurrentHashMap<String, ConcurrentMap<String, T>>();
+        this.spaceGuid = spaceGuid;
     }
 
     @Override
     public void cleanStore(String serviceType) {
         try {
-            if (hashOps.containsKey(serviceType)) {
-                for (String serviceGuid : hashOps.get(serviceType).keySet()) {
-                    LOG.info("deleted " + serviceType + "\t" + serviceGuid, "");
-                    hashOps.get(serviceType).remove(serviceGuid);
-                }
-            } else {
-                hashOps.put(serviceType, new HashMap<String, T>());
-            }
+            Map<String, T> entries = hashOps(serviceType);
+            int deleted = entries.size();
+            entries.clear();
+            LOG.info("deleted " + deleted + " entries of " + serviceType);
         } catch (Exception e) {
             LOG.error(e.getMessage(), e);
         }
@@ -55,41 +58,101 @@ public class InMemoryCredentialsStore<T> implements CredentialsStore<T> {
 
     @Override
     public void put(String serviceType, UUID serviceInstanceGuid, T code) {
-        Map<String, T> hashOp = hashOps.get(serviceType);
-        if(hashOp != null) {
-            hashOp.put(serviceInstanceGuid.toString(), code);
-            LOG.info("in-memory redis entry saved: " + serviceInstanceGuid);
-        } else {
-            LOG.warn("in-memory redis entry not saved: service type not found");
+        hashOps(serviceType).put(serviceInstanceGuid.toString(), code);
+        LOG.info("in-memory redis entry saved: " + serviceInstanceGuid);
+    }
+
+    @Override
+    public void putAll(String serviceType, Map<UUID, T> entries) {
+        Map<String, T> hashOp = hashOps(serviceType);
+        for (Map.Entry<UUID, T> entry : entries.entrySet()) {
+            hashOp.put(entry.getKey().toString(), entry.getValue());
         }
+        LOG.debug("in-memory redis entries saved: {}", entries.size());
     }
 
     @Override
     public void delete(String serviceType, UUID serviceInstanceGuid) {
-        hashOps.getOrDefault(serviceType, Collections.emptyMap()).remove(serviceInstanceGuid.toString());
+        existingHashOps(serviceType).remove(serviceInstanceGuid.toString());
         LOG.info("in-memory redis entry deleted: " + serviceInstanceGuid.toString());
     }
 
+    @Override
+    public void deleteAll(String serviceType, Collection<UUID> serviceInstanceGuids) {
+        Map<String, T> hashOp = existingHashOps(serviceType);
+        for (UUID serviceInstanceGuid : serviceInstanceGuids) {
+            hashOp.remove(serviceInstanceGuid.toString());
+        }
+        LOG.debug("in-memory redis entries deleted: {}", serviceInstanceGuids.size());
+    }
+
     @Override
     public Boolean exists(String serviceType, UUID serviceInstanceGuid) {
-        T hashEntry = hashOps.getOrDefault(serviceType, Collections.emptyMap()).get(serviceInstanceGuid.toString());
-        return (hashEntry != null) ? true : false;
+        return existingHashOps(serviceType).containsKey(serviceInstanceGuid.toString());
+    }
+
+    @Override
+    public Set<UUID> existing(String serviceType, Collection<UUID> serviceInstanceGuids) {
+        return new HashSet<UUID>(getAll(serviceType, serviceInstanceGuids).keySet());
     }
 
     @Override
     public T get(String serviceType, UUID serviceInstanceGuid) {
-        return hashOps.getOrDefault(serviceType, Collections.emptyMap()).get(serviceInstanceGuid.toString());
+        return existingHashOps(serviceType).get(serviceInstanceGuid.toString());
+    }
+
+    @Override
+    public Map<UUID, T> getAll(String serviceType, Collection<UUID> serviceInstanceGuids) {
+        Map<String, T> hashOp = existingHashOps(serviceType);
+        Map<UUID, T> entries = new HashMap<UUID, T>();
+        for (UUID serviceInstanceGuid : serviceInstanceGuids) {
+            T entry = hashOp.get(serviceInstanceGuid.toString());
+            if (entry != null) {
+                entries.put(serviceInstanceGuid, entry);
+            }
+        }
+        return entries;
+    }
+
+    @Override
+    public Map<UUID, T> entries(String serviceType) {
+        Map<UUID, T> entries = new HashMap<UUID, T>();
+        for (Map.Entry<String, T> entry : existingHashOps(serviceType).entrySet()) {
+            entries.put(UUID.fromString(entry.getKey()), entry.getValue());
+        }
+        return entries;
     }
 
     @Override
     public Set<String> getSurplusServicesGuids(String serviceType, Set<String> retrievedServiceGuids) {
-        Set<String> serviceInstancesToDeleted = new HashSet<String>(this.hashOps.getOrDefault(serviceType, Collections.emptyMap()).keySet());
+        Set<String> serviceInstancesToDeleted = new HashSet<String>(existingHashOps(serviceType).keySet());
         serviceInstancesToDeleted.removeAll(retrievedServiceGuids);
         return serviceInstancesToDeleted;
     }
 
     @Override
     public List<T> values(String serviceType) {
-        return new ArrayList<T>(hashOps.getOrDefault(serviceType, Collections.emptyMap()).values());
+        return new ArrayList<T>(existingHashOps(serviceType).values());
+    }
+
+    @Override
+    public long count(String serviceType) {
+        return existingHashOps(serviceType).size();
+    }
+
+    @Override
+    public List<T> valuesInSpace(String serviceType, String spaceGuid) {
+        return existingHashOps(serviceType).values().stream()
+                .filter(entry -> spaceGuid.equals(this.spaceGuid.apply(entry)))
+                .collect(Collectors.toList());
+    }
+
+    private ConcurrentMap<String, T> hashOps(String serviceType) {
+        return hashOps.computeIfAbsent(serviceType, type -> new ConcurrentHashMap<String, T>());
+    }
+
+    private Map<String, T> existingHashOps(String serviceType) {
+        Map<String, T> hashOp = hashOps.get(serviceType);
+        return hashOp != null ? hashOp : Collections.<String, T>emptyMap();
     }
-}
\ No newline at end of file
+}
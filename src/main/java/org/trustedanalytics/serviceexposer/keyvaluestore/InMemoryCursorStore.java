@@ -0,0 +1,35 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer.keyvaluestore;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class InMemoryCursorStore implements CursorStore {
+
+    private final Map<String, String> cursors = new ConcurrentHashMap<>();
+
+    @Override
+    public Optional<String> get(String name) {
+        return Optional.ofNullable(cursors.get(name));
+    }
+
+    @Override
+    public void put(String name, String value) {
+        cursors.put(name, value);
+    }
+}
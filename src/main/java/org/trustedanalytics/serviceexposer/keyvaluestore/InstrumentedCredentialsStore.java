@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer.keyvaluestore;
+
+import org.trustedanalytics.serviceexposer.metrics.ExposerMetrics;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+public class InstrumentedCredentialsStore<T> implements CredentialsStore<T> {
+
+    private final CredentialsStore<T> delegate;
+    private final ExposerMetrics metrics;
+
+    public InstrumentedCredentialsStore(CredentialsStore<T> delegate, ExposerMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void put(String serviceType, UUID serviceInstanceGuid, T code) {
+        measure("put", () -> delegate.put(serviceType, serviceInstanceGuid, code));
+    }
+
+    @Override
+    public void putAll(String serviceType, Map<UUID, T> entries) {
+        measure("putAll", () -> delegate.putAll(serviceType, entries));
+    }
+
+    @Override
+    public void delete(String serviceType, UUID serviceInstanceGuid) {
+        measure("delete", () -> delegate.delete(serviceType, serviceInstanceGuid));
+    }
+
+    @Override
+    public void deleteAll(String serviceType, Collection<UUID> serviceInstanceGuids) {
+        measure("deleteAll", () -> delegate.deleteAll(serviceType, serviceInstanceGuids));
+    }
+
+    @Override
+    public Boolean exists(String serviceType, UUID serviceInstanceGuid) {
+        return measure("exists", () -> delegate.exists(serviceType, serviceInstanceGuid));
+    }
+
+    @Override
+    public Set<UUID> existing(String serviceType, Collection<UUID> serviceInstanceGuids) {
+        return measure("existing", () -> delegate.existing(serviceType, serviceInstanceGuids));
+    }
+
+    @Override
+    public T get(String serviceType, UUID serviceInstanceGuid) {
+        return measure("get", () -> delegate.get(serviceType, serviceInstanceGuid));
+    }
+
+    @Override
+    public Map<UUID, T> getAll(String serviceType, Collection<UUID> serviceInstanceGuids) {
+        return measure("getAll", () -> delegate.getAll(serviceType, serviceInstanceGuids));
+    }
+
+    @Override
+    public Map<UUID, T> entries(String serviceType) {
+        return measure("entries", () -> delegate.entries(serviceType));
+    }
+
+    @Override
+    public Set<String> getSurplusServicesGuids(String serviceType, Set<String> retrievedServiceGuids) {
+        return measure("getSurplusServicesGuids", () -> delegate.getSurplusServicesGuids(serviceType, retrievedServiceGuids));
+    }
+
+    @Override
+    public List<T> values(String serviceType) {
+        return measure("values", () -> delegate.values(serviceType));
+    }
+
+    @Override
+    public long count(String serviceType) {
+        return measure("count", () -> delegate.count(serviceType));
+    }
+
+    @Override
+    public List<T> valuesInSpace(String serviceType, String spaceGuid) {
+        return measure("valuesInSpace", () -> delegate.valuesInSpace(serviceType, spaceGuid));
+    }
+
+    @Override
+    public void cleanStore(String serviceType) {
+        measure("cleanStore", () -> delegate.cleanStore(serviceType));
+    }
+
+    private void measure(String operation, Runnable call) {
+        measure(operation, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    private <R> R measure(String operation, Supplier<R> call) {
+        long start = System.currentTimeMillis();
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            metrics.increment("store." + operation + ".errors");
+            throw e;
+        } finally {
+            metrics.increment("store." + operation);
+            metrics.recordTime("store." + operation, System.currentTimeMillis() - start);
+        }
+    }
+}
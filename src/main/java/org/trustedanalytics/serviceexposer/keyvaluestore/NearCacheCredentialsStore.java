@@ -0,0 +1,230 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer.keyvaluestore;
+
+import com.google.common.collect.ImmutableMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public class NearCacheCredentialsStore<T> implements CredentialsStore<T> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NearCacheCredentialsStore.class);
+
+    private final CredentialsStore<T> delegate;
+    private final ValueOperations<String, String> versionOps;
+    private final Function<T, String> spaceGuid;
+    private final long maxStalenessMillis;
+    private final ConcurrentMap<String, Snapshot<T>> snapshots = new ConcurrentHashMap<>();
+    private final AtomicLong localWrites = new AtomicLong();
+
+    public NearCacheCredentialsStore(CredentialsStore<T> delegate, RedisOperations<String, String> versionTemplate,
+                                     Function<T, String> spaceGuid, long maxStalenessMillis) {
+        this.delegate = delegate;
+        this.versionOps = versionTemplate.opsForValue();
+        this.spaceGuid = spaceGuid;
+        this.maxStalenessMillis = maxStalenessMillis;
+    }
+
+    @Override
+    public void put(String serviceType, UUID serviceInstanceGuid, T code) {
+        delegate.put(serviceType, serviceInstanceGuid, code);
+        applyLocalWrite(serviceType, entries -> entries.put(serviceInstanceGuid, code));
+    }
+
+    @Override
+    public void putAll(String serviceType, Map<UUID, T> entries) {
+        if (!entries.isEmpty()) {
+            delegate.putAll(serviceType, entries);
+            applyLocalWrite(serviceType, cached -> cached.putAll(entries));
+        }
+    }
+
+    @Override
+    public void delete(String serviceType, UUID serviceInstanceGuid) {
+        delegate.delete(serviceType, serviceInstanceGuid);
+        applyLocalWrite(serviceType, entries -> entries.remove(serviceInstanceGuid));
+    }
+
+    @Override
+    public void deleteAll(String serviceType, Collection<UUID> serviceInstanceGuids) {
+        if (!serviceInstanceGuids.isEmpty()) {
+            delegate.deleteAll(serviceType, serviceInstanceGuids);
+            applyLocalWrite(serviceType, entries -> entries.keySet().removeAll(serviceInstanceGuids));
+        }
+    }
+
+    @Override
+    public Boolean exists(String serviceType, UUID serviceInstanceGuid) {
+        return snapshot(serviceType).entries.containsKey(serviceInstanceGuid);
+    }
+
+    @Override
+    public Set<UUID> existing(String serviceType, Collection<UUID> serviceInstanceGuids) {
+        Map<UUID, T> entries = snapshot(serviceType).entries;
+        return serviceInstanceGuids.stream()
+                .filter(entries::containsKey)
+                .collect(Collectors.toCollection(HashSet::new));
+    }
+
+    @Override
+    public T get(String serviceType, UUID serviceInstanceGuid) {
+        return snapshot(serviceType).entries.get(serviceInstanceGuid);
+    }
+
+    @Override
+    public Map<UUID, T> getAll(String serviceType, Collection<UUID> serviceInstanceGuids) {
+        Map<UUID, T> entries = snapshot(serviceType).entries;
+        Map<UUID, T> found = new HashMap<>();
+        for (UUID serviceInstanceGuid : serviceInstanceGuids) {
+            T entry = entries.get(serviceInstanceGuid);
+            if (entry != null) {
+                found.put(serviceInstanceGuid, entry);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public Map<UUID, T> entries(String serviceType) {
+        return new HashMap<>(snapshot(serviceType).entries);
+    }
+
+    @Override
+    public Set<String> getSurplusServicesGuids(String serviceType, Set<String> retrievedServiceGuids) {
+        Set<String> serviceInstancesToDeleted = snapshot(serviceType).entries.keySet().stream()
+                .map(UUID::toString)
+                .collect(Collectors.toCollection(HashSet::new));
+        serviceInstancesToDeleted.removeAll(retrievedServiceGuids);
+        return serviceInstancesToDeleted;
+    }
+
+    @Override
+    public List<T> values(String serviceType) {
+        return new ArrayList<>(snapshot(serviceType).entries.values());
+    }
+
+    @Override
+    public long count(String serviceType) {
+        Snapshot<T> cached = snapshots.get(serviceType);
+        return cached != null ? cached.entries.size() : delegate.count(serviceType);
+    }
+
+    @Override
+    public List<T> valuesInSpace(String serviceType, String spaceGuid) {
+        return new ArrayList<>(snapshot(serviceType).bySpace.getOrDefault(spaceGuid, Collections.emptyList()));
+    }
+
+    @Override
+    public void cleanStore(String serviceType) {
+        delegate.cleanStore(serviceType);
+        applyLocalWrite(serviceType, Map::clear);
+    }
+
+    private Snapshot<T> snapshot(String serviceType) {
+        Snapshot<T> cached = snapshots.get(serviceType);
+        long now = System.currentTimeMillis();
+        if (cached != null && now - cached.validatedAt < maxStalenessMillis) {
+            return cached;
+        }
+
+        long writes = localWrites.get();
+        String version = versionOps.get(versionKey(serviceType));
+        Snapshot<T> current = cached != null && Objects.equals(cached.version, version)
+                ? cached.validated(now)
+                : load(serviceType, version, now);
+        snapshots.compute(serviceType, (type, previous) -> localWrites.get() == writes ? current : previous);
+        return current;
+    }
+
+    private Snapshot<T> load(String serviceType, String version, long now) {
+        Map<UUID, T> entries = delegate.entries(serviceType);
+        LOG.info("near cache loaded " + entries.size() + " entries of " + serviceType + " at version " + version);
+        return new Snapshot<>(version, ImmutableMap.copyOf(entries), bySpace(entries.values()), now);
+    }
+
+    private void applyLocalWrite(String serviceType, Consumer<Map<UUID, T>> write) {
+        localWrites.incrementAndGet();
+        Long version;
+        try {
+            version = versionOps.increment(versionKey(serviceType), 1);
+        } catch (Exception e) {
+            LOG.error(e.getMessage(), e);
+            snapshots.remove(serviceType);
+            return;
+        }
+        snapshots.computeIfPresent(serviceType, (type, cached) -> {
+            if (version == null || !String.valueOf(version - 1).equals(cached.version == null ? "0" : cached.version)) {
+                return null;
+            }
+            Map<UUID, T> entries = new HashMap<>(cached.entries);
+            write.accept(entries);
+            return new Snapshot<>(String.valueOf(version), ImmutableMap.copyOf(entries), bySpace(entries.values()),
+                    System.currentTimeMillis());
+        });
+    }
+
+    private Map<String, List<T>> bySpace(Collection<T> entries) {
+        Map<String, List<T>> bySpace = new HashMap<>();
+        for (T entry : entries) {
+            String space = spaceGuid.apply(entry);
+            if (space != null) {
+                bySpace.computeIfAbsent(space, key -> new ArrayList<>()).add(entry);
+            }
+        }
+        return bySpace;
+    }
+
+    private static String versionKey(String serviceType) {
+        return serviceType + ":version";
+    }
+
+    private static class Snapshot<T> {
+        private final String version;
+        private final Map<UUID, T> entries;
+        private final Map<String, List<T>> bySpace;
+        private final long validatedAt;
+
+        Snapshot(String version, Map<UUID, T> entries, Map<String, List<T>> bySpace, long validatedAt) {
+            this.version = version;
+            this.entries = entries;
+            this.bySpace = bySpace;
+            this.validatedAt = validatedAt;
+        }
+
+        Snapshot<T> validated(long now) {
+            return new Snapshot<>(version, entries, bySpace, now);
+        }
+    }
+}
@@ -19,31 +19,82 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.redis.core.HashOperations;
 import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.SetOperations;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public class RedisCredentialsStore<T> implements CredentialsStore<T> {
 
     private static final Logger LOG = LoggerFactory.getLogger(RedisCredentialsStore.class);
 
+    private final RedisOperations<String, T> template;
     private final HashOperations<String, String, T> hashOps;
+    private final RedisOperations<String, String> indexTemplate;
+    private final SetOperations<String, String> indexOps;
+    private final Function<T, String> spaceGuid;
+    private final Set<String> indexedServiceTypes = ConcurrentHashMap.newKeySet();
 
-    public RedisCredentialsStore(RedisOperations<String, T> template) {
+    public RedisCredentialsStore(RedisOperations<String, T> template, RedisOperations<String, String> indexTemplate, Function<T, String> spaceGuid) {
+        this.template = template;
         this.hashOps = template.opsForHash();
+        this.indexTemplate = indexTemplate;
+        this.indexOps = indexTemplate.opsForSet();
+        this.spaceGuid = spaceGuid;
     }
 
     @Override
     public void put(String serviceType, UUID serviceInstanceGuid, T code) {
-        hashOps.put(serviceType, serviceInstanceGuid.toString(), code);
+        inTransaction(ops -> {
+            ops.opsForHash().put(serviceType, serviceInstanceGuid.toString(), code);
+            addToSpaceIndex(serviceType, spaceGuid.apply(code), serviceInstanceGuid.toString());
+        });
         LOG.info("redis entry saved: " + serviceInstanceGuid);
     }
 
+    @Override
+    public void putAll(String serviceType, Map<UUID, T> entries) {
+        if (!entries.isEmpty()) {
+            Map<String, T> hash = entries.entrySet().stream()
+                    .collect(Collectors.toMap(entry -> entry.getKey().toString(), Map.Entry::getValue));
+            Map<String, List<String>> spaces = bySpace(entries);
+            inTransaction(ops -> {
+                ops.opsForHash().putAll(serviceType, hash);
+                spaces.forEach((space, guids) -> addToSpaceIndex(serviceType, space, guids.toArray(new String[guids.size()])));
+            });
+            LOG.debug("redis entries saved: {}", entries.size());
+        }
+    }
+
     @Override
     public void delete(String serviceType, UUID serviceInstanceGuid) {
-        hashOps.delete(serviceType, serviceInstanceGuid.toString());
-        LOG.info("redis entry deleted: " + serviceInstanceGuid);
+        deleteAll(serviceType, Collections.singleton(serviceInstanceGuid));
+    }
+
+    @Override
+    public void deleteAll(String serviceType, Collection<UUID> serviceInstanceGuids) {
+        if (!serviceInstanceGuids.isEmpty()) {
+            Map<String, List<String>> spaces = bySpace(getAll(serviceType, serviceInstanceGuids));
+            Object[] hashKeys = serviceInstanceGuids.stream().map(UUID::toString).toArray();
+            inTransaction(ops -> {
+                ops.opsForHash().delete(serviceType, hashKeys);
+                spaces.forEach((space, guids) -> indexOps.remove(spaceIndexKey(serviceType, space), guids.toArray()));
+            });
+            LOG.debug("redis entries deleted: {}", serviceInstanceGuids.size());
+        }
     }
 
     @Override
@@ -51,12 +102,40 @@ public class RedisCredentialsStore<T> implements CredentialsStore<T> {
         return hashOps.get(serviceType, serviceInstanceGuid.toString());
     }
 
+    @Override
+    public Map<UUID, T> getAll(String serviceType, Collection<UUID> serviceInstanceGuids) {
+        Map<UUID, T> entries = new HashMap<>();
+        if (serviceInstanceGuids.isEmpty()) {
+            return entries;
+        }
+
+        List<UUID> guids = new ArrayList<>(serviceInstanceGuids);
+        List<T> values = hashOps.multiGet(serviceType, guids.stream().map(UUID::toString).collect(Collectors.toList()));
+        for (int i = 0; i < guids.size(); i++) {
+            if (values.get(i) != null) {
+                entries.put(guids.get(i), values.get(i));
+            }
+        }
+        return entries;
+    }
+
+    @Override
+    public Map<UUID, T> entries(String serviceType) {
+        return hashOps.entries(serviceType).entrySet().stream()
+                .collect(Collectors.toMap(entry -> UUID.fromString(entry.getKey()), Map.Entry::getValue));
+    }
+
     @Override
     public Boolean exists(String serviceType, UUID serviceInstanceGuid) {
         T hashEntry = hashOps.get(serviceType, serviceInstanceGuid.toString());
         return (hashEntry != null) ? true : false;
     }
 
+    @Override
+    public Set<UUID> existing(String serviceType, Collection<UUID> serviceInstanceGuids) {
+        return new HashSet<>(getAll(serviceType, serviceInstanceGuids).keySet());
+    }
+
     @Override
     public Set<String> getSurplusServicesGuids(String serviceType, Set<String> servicesGuids) {
         Set<String> serviceInstancesToDeleted = this.hashOps.keys(serviceType);
@@ -69,16 +148,91 @@ public class RedisCredentialsStore<T> implements CredentialsStore<T> {
         return hashOps.values(serviceType);
     }
 
+    @Override
+    public long count(String serviceType) {
+        Long count = hashOps.size(serviceType);
+        return count != null ? count : 0;
+    }
+
+    @Override
+    public List<T> valuesInSpace(String serviceType, String spaceGuid) {
+        ensureSpaceIndex(serviceType);
+        Set<String> serviceInstanceGuids = indexOps.members(spaceIndexKey(serviceType, spaceGuid));
+        if (serviceInstanceGuids == null || serviceInstanceGuids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return hashOps.multiGet(serviceType, serviceInstanceGuids).stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
 
     @Override
     public void cleanStore(String serviceType) {
         try {
-            for (String serviceGuid : hashOps.keys(serviceType)) {
-                LOG.info("deleted " + serviceType + "\t" + serviceGuid, "");
-                hashOps.delete(serviceType, serviceGuid);
+            Set<String> keys = new HashSet<>();
+            keys.add(spacesKey(serviceType));
+            Set<String> spaces = indexOps.members(spacesKey(serviceType));
+            if (spaces != null) {
+                spaces.forEach(space -> keys.add(spaceIndexKey(serviceType, space)));
             }
+            inTransaction(ops -> {
+                indexTemplate.delete(keys);
+                ops.delete(serviceType);
+            });
+            LOG.info("deleted all entries of " + serviceType);
         } catch (Exception e) {
             LOG.error(e.getMessage(), e);
         }
     }
+
+    private void ensureSpaceIndex(String serviceType) {
+        if (!indexedServiceTypes.contains(serviceType)) {
+            synchronized (indexedServiceTypes) {
+                if (!indexedServiceTypes.contains(serviceType)) {
+                    Map<String, T> entries = hashOps.entries(serviceType);
+                    entries.entrySet().stream()
+                            .collect(Collectors.groupingBy(entry -> spaceGuid.apply(entry.getValue()),
+                                    Collectors.mapping(Map.Entry::getKey, Collectors.toList())))
+                            .forEach((space, guids) -> addToSpaceIndex(serviceType, space, guids.toArray(new String[guids.size()])));
+                    indexedServiceTypes.add(serviceType);
+                    LOG.info("space index rebuilt for " + serviceType + ": " + entries.size() + " entries");
+                }
+            }
+        }
+    }
+
+    private Map<String, List<String>> bySpace(Map<UUID, T> entries) {
+        return entries.entrySet().stream()
+                .collect(Collectors.groupingBy(entry -> spaceGuid.apply(entry.getValue()),
+                        Collectors.mapping(entry -> entry.getKey().toString(), Collectors.toList())));
+    }
+
+    // Both templates share one connection factory, so the index commands issued through
+    // indexTemplate run on the connection bound by the session and land in the same MULTI.
+    private void inTransaction(Consumer<RedisOperations<String, T>> commands) {
+        template.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, T> ops = (RedisOperations<String, T>) operations;
+                ops.multi();
+                commands.accept(ops);
+                ops.exec();
+                return null;
+            }
+        });
+    }
+
+    private void addToSpaceIndex(String serviceType, String space, String... serviceInstanceGuids) {
+        indexOps.add(spaceIndexKey(serviceType, space), serviceInstanceGuids);
+        indexOps.add(spacesKey(serviceType), space);
+    }
+
+    private static String spaceIndexKey(String serviceType, String space) {
+        return serviceType + ":space:" + space;
+    }
+
+    private static String spacesKey(String serviceType) {
+        return serviceType + ":spaces";
+    }
 }
@@ -0,0 +1,42 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer.keyvaluestore;
+
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.util.Optional;
+
+public class RedisCursorStore implements CursorStore {
+
+    private static final String KEY_PREFIX = "service-exposer:cursor:";
+
+    private final ValueOperations<String, String> valueOps;
+
+    public RedisCursorStore(RedisOperations<String, String> template) {
+        this.valueOps = template.opsForValue();
+    }
+
+    @Override
+    public Optional<String> get(String name) {
+        return Optional.ofNullable(valueOps.get(KEY_PREFIX + name));
+    }
+
+    @Override
+    public void put(String name, String value) {
+        valueOps.set(KEY_PREFIX + name, value);
+    }
+}
@@ -22,9 +22,10 @@ import org.springframework.context.annotation.Profile;
 import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
 import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.serializer.JacksonJsonRedisSerializer;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.trustedanalytics.serviceexposer.metrics.ExposerMetrics;
 
 public class StorageConfig {
 
@@ -38,22 +39,40 @@ public class StorageConfig {
         @Value("${redis.port}")
         private String redisPort;
 
+        @Value("${redis.serialization:json}")
+        private String redisSerialization;
+
+        @Value("${redis.nearCacheMaxStalenessMillis:5000}")
+        private long nearCacheMaxStalenessMillis;
+
+        @Bean
+        CredentialsStore<CredentialProperties> redisCredentialsStore(RedisOperations<String, CredentialProperties> redisTemplate,
+                                                                     StringRedisTemplate stringRedisTemplate,
+                                                                     ExposerMetrics metrics) {
+            CredentialsStore<CredentialProperties> store =
+                    new RedisCredentialsStore<CredentialProperties>(redisTemplate, stringRedisTemplate, CredentialProperties::getSpaceGuid);
+            if (nearCacheMaxStalenessMillis > 0) {
+                store = new NearCacheCredentialsStore<CredentialProperties>(store, stringRedisTemplate,
+                        CredentialProperties::getSpaceGuid, nearCacheMaxStalenessMillis);
+            }
+            return new InstrumentedCredentialsStore<CredentialProperties>(store, metrics);
+        }
+
         @Bean
-        CredentialsStore<CredentialProperties> redisCredentialsStore(RedisOperations<String, CredentialProperties> redisTemplate) {
-            return new RedisCredentialsStore<CredentialProperties>(redisTemplate);
+        CursorStore redisCursorStore(StringRedisTemplate stringRedisTemplate) {
+            return new RedisCursorStore(stringRedisTemplate);
         }
 
         @Bean
         RedisOperations<String, CredentialProperties> redisTemplate(JedisConnectionFactory jedisConnectionFactory) {
             RedisTemplate<String, CredentialProperties> template = new RedisTemplate<String, CredentialProperties>();
 
-            jedisConnectionFactory.setPort(Integer.parseInt(redisPort));
-            jedisConnectionFactory.setHostName(redisHostname);
+            configureConnectionFactory(jedisConnectionFactory);
 
             template.setConnectionFactory(jedisConnectionFactory);
 
             RedisSerializer<String> stringSerializer = new StringRedisSerializer();
-            RedisSerializer<CredentialProperties> albumSerializer = new JacksonJsonRedisSerializer<CredentialProperties>(CredentialProperties.class);
+            RedisSerializer<CredentialProperties> albumSerializer = new CredentialPropertiesSerializer("binary".equalsIgnoreCase(redisSerialization));
 
             template.setKeySerializer(stringSerializer);
             template.setValueSerializer(albumSerializer);
@@ -62,14 +81,31 @@ public class StorageConfig {
 
             return template;
         }
+
+        @Bean
+        StringRedisTemplate stringRedisTemplate(JedisConnectionFactory jedisConnectionFactory) {
+            configureConnectionFactory(jedisConnectionFactory);
+            return new StringRedisTemplate(jedisConnectionFactory);
+        }
+
+        private void configureConnectionFactory(JedisConnectionFactory jedisConnectionFactory) {
+            jedisConnectionFactory.setPort(Integer.parseInt(redisPort));
+            jedisConnectionFactory.setHostName(redisHostname);
+        }
     }
 
     @Profile("in-memory")
     @Configuration
     public static class InMemoryStorageConfig {
         @Bean
-        CredentialsStore<CredentialProperties> inMemorycredentialsStore() {
-            return new InMemoryCredentialsStore<CredentialProperties>();
+        CredentialsStore<CredentialProperties> inMemorycredentialsStore(ExposerMetrics metrics) {
+            return new InstrumentedCredentialsStore<CredentialProperties>(
+                    new InMemoryCredentialsStore<CredentialProperties>(CredentialProperties::getSpaceGuid), metrics);
+        }
+
+        @Bean
+        CursorStore inMemoryCursorStore() {
+            return new InMemoryCursorStore();
         }
     }
 }
@@ -0,0 +1,54 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class CcRequestCounter {
+
+    private final ExposerMetrics metrics;
+    private final ThreadLocal<AtomicLong> scope = new ThreadLocal<>();
+
+    public CcRequestCounter(ExposerMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void record() {
+        metrics.increment("cc.requests");
+        AtomicLong counter = scope.get();
+        if (counter != null) {
+            counter.incrementAndGet();
+        }
+    }
+
+    public AtomicLong currentScope() {
+        return scope.get();
+    }
+
+    public void countInto(AtomicLong counter, Runnable action) {
+        AtomicLong previous = scope.get();
+        scope.set(counter);
+        try {
+            action.run();
+        } finally {
+            if (previous == null) {
+                scope.remove();
+            } else {
+                scope.set(previous);
+            }
+        }
+    }
+}
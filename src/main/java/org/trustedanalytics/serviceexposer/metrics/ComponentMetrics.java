@@ -0,0 +1,70 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer.metrics;
+
+import com.google.common.cache.CacheStats;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.trustedanalytics.serviceexposer.queue.MessagingQueue;
+import org.trustedanalytics.serviceexposer.queue.NatsMessagingQueue;
+import org.trustedanalytics.serviceexposer.rest.SpaceAccessCache;
+import org.trustedanalytics.serviceexposer.retriver.ProvisioningPipeline;
+import org.trustedanalytics.serviceexposer.retriver.ServicesRetriver;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public class ComponentMetrics implements PublicMetrics {
+
+    private final ServicesRetriver servicesRetriver;
+    private final SpaceAccessCache spaceAccessCache;
+    private final ProvisioningPipeline provisioningPipeline;
+    private final MessagingQueue messagingQueue;
+
+    public ComponentMetrics(ServicesRetriver servicesRetriver, SpaceAccessCache spaceAccessCache,
+                            ProvisioningPipeline provisioningPipeline, MessagingQueue messagingQueue) {
+        this.servicesRetriver = servicesRetriver;
+        this.spaceAccessCache = spaceAccessCache;
+        this.provisioningPipeline = provisioningPipeline;
+        this.messagingQueue = messagingQueue;
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        List<Metric<?>> metrics = new ArrayList<>();
+        metrics.add(new Metric<Long>("counter.checker.catalogCache.hits", servicesRetriver.getCatalogCacheHits()));
+        metrics.add(new Metric<Long>("counter.checker.catalogCache.misses", servicesRetriver.getCatalogCacheMisses()));
+        addCacheStats(metrics, "controller.spaceAccessCache.granted", spaceAccessCache.getGrantedAccessStats());
+        addCacheStats(metrics, "controller.spaceAccessCache.denied", spaceAccessCache.getDeniedAccessStats());
+        metrics.add(new Metric<Integer>("gauge.provisioning.inFlight", provisioningPipeline.inFlight()));
+
+        if (messagingQueue instanceof NatsMessagingQueue) {
+            NatsMessagingQueue nats = (NatsMessagingQueue) messagingQueue;
+            long published = nats.getPublishedRoutes();
+            metrics.add(new Metric<Long>("counter.nats.published", published));
+            metrics.add(new Metric<Double>("gauge.nats.publishLatencyMicros.avg",
+                    published > 0 ? nats.getPublishLatencyNanos() / 1000.0 / published : 0.0));
+        }
+        return metrics;
+    }
+
+    private static void addCacheStats(List<Metric<?>> metrics, String name, CacheStats stats) {
+        metrics.add(new Metric<Long>("counter." + name + ".hits", stats.hitCount()));
+        metrics.add(new Metric<Long>("counter." + name + ".misses", stats.missCount()));
+        metrics.add(new Metric<Long>("counter." + name + ".evictions", stats.evictionCount()));
+    }
+}
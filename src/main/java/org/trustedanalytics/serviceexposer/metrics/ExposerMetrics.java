@@ -0,0 +1,78 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer.metrics;
+
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.GaugeService;
+import org.springframework.boot.actuate.metrics.Metric;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ExposerMetrics implements PublicMetrics {
+
+    private final GaugeService gaugeService;
+    private final ConcurrentMap<String, AtomicLong> counters = new ConcurrentHashMap<>();
+
+    public ExposerMetrics() {
+        this(null);
+    }
+
+    public ExposerMetrics(GaugeService gaugeService) {
+        this.gaugeService = gaugeService;
+    }
+
+    public void increment(String name) {
+        increment(name, 1);
+    }
+
+    public void increment(String name, long delta) {
+        if (delta != 0) {
+            counters.computeIfAbsent(name, key -> new AtomicLong()).addAndGet(delta);
+        }
+    }
+
+    public long getCount(String name) {
+        AtomicLong counter = counters.get(name);
+        return counter != null ? counter.get() : 0;
+    }
+
+    public void recordTime(String name, long millis) {
+        if (gaugeService != null) {
+            gaugeService.submit("timer." + name, millis);
+        }
+    }
+
+    public void submit(String name, double value) {
+        if (gaugeService != null) {
+            gaugeService.submit("gauge." + name, value);
+        }
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        List<Metric<?>> metrics = new ArrayList<>();
+        for (Map.Entry<String, AtomicLong> counter : counters.entrySet()) {
+            metrics.add(new Metric<Long>("counter." + counter.getKey(), counter.getValue().get()));
+        }
+        return metrics;
+    }
+}
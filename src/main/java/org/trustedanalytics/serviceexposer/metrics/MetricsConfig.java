@@ -0,0 +1,39 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer.metrics;
+
+import org.springframework.boot.actuate.metrics.GaugeService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.trustedanalytics.serviceexposer.queue.MessagingQueue;
+import org.trustedanalytics.serviceexposer.rest.SpaceAccessCache;
+import org.trustedanalytics.serviceexposer.retriver.ProvisioningPipeline;
+import org.trustedanalytics.serviceexposer.retriver.ServicesRetriver;
+
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public ExposerMetrics exposerMetrics(GaugeService gaugeService) {
+        return new ExposerMetrics(gaugeService);
+    }
+
+    @Bean
+    public ComponentMetrics componentMetrics(ServicesRetriver servicesRetriver, SpaceAccessCache spaceAccessCache,
+                                             ProvisioningPipeline provisioningPipeline, MessagingQueue messagingQueue) {
+        return new ComponentMetrics(servicesRetriver, spaceAccessCache, provisioningPipeline, messagingQueue);
+    }
+}
@@ -16,11 +16,15 @@
 package org.trustedanalytics.serviceexposer.nats.registrator;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.TaskScheduler;
+import org.trustedanalytics.serviceexposer.cluster.ShardOwnership;
 import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialProperties;
 import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialsStore;
+import org.trustedanalytics.serviceexposer.metrics.ExposerMetrics;
 import org.trustedanalytics.serviceexposer.nats.registrator.externaltools.ExternalTool;
 import org.trustedanalytics.serviceexposer.nats.registrator.externaltools.ExternalTools;
 import org.trustedanalytics.serviceexposer.queue.MessagingQueue;
@@ -35,6 +39,12 @@ public class RegistratorConfig {
     @Value("${nats.registrating.triggerExpression}")
     private String natsTriggerExpression;
 
+    @Value("${nats.registrating.refreshIntervalSeconds:20}")
+    private long refreshIntervalSeconds;
+
+    @Value("${nats.registrating.followRouterStart:true}")
+    private boolean followRouterStart;
+
     @Value("#{'${serviceTypes}'.split(',')}")
     private List<String> serviceTypes;
 
@@ -55,13 +65,21 @@ public class RegistratorConfig {
     }
 
     @Bean
-    public RegistratorJob registratorJob(MessagingQueue nats, CredentialsStore<CredentialProperties> store) {
-        return new RegistratorJob(nats, store, serviceTypes, visualisationToolsCredentials());
+    public RegistratorJob registratorJob(MessagingQueue nats, CredentialsStore<CredentialProperties> store, ShardOwnership ownership,
+                                         ExposerMetrics metrics) {
+        RegistratorJob registratorJob = new RegistratorJob(nats, store, serviceTypes, visualisationToolsCredentials(), refreshIntervalSeconds, ownership);
+        registratorJob.setMetrics(metrics);
+        return registratorJob;
     }
 
     @Bean(initMethod = "start")
-    public RegistratorScheduler registratorScheduler(RegistratorJob registratorJob) {
-        return new RegistratorScheduler(registratorJob, natsTriggerExpression);
+    public RegistratorScheduler registratorScheduler(RegistratorJob registratorJob, MessagingQueue nats,
+                                                     @Qualifier("registratorTaskScheduler") TaskScheduler taskScheduler) {
+        RegistratorScheduler scheduler = new RegistratorScheduler(registratorJob, taskScheduler, natsTriggerExpression);
+        if (followRouterStart) {
+            nats.addRouterStartListener(scheduler::routerStarted);
+        }
+        return scheduler;
     }
 }
 
@@ -15,35 +15,100 @@
  */
 package org.trustedanalytics.serviceexposer.nats.registrator;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.trustedanalytics.serviceexposer.cluster.ShardOwnership;
 import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialProperties;
 import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialsStore;
+import org.trustedanalytics.serviceexposer.metrics.ExposerMetrics;
 import org.trustedanalytics.serviceexposer.queue.MessagingQueue;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 public class RegistratorJob {
 
+    private static final Logger LOG = LoggerFactory.getLogger(RegistratorJob.class);
+    private static final long DEFAULT_REFRESH_INTERVAL_SECONDS = 20;
+
     private MessagingQueue natsOps;
     private CredentialsStore<CredentialProperties> store;
     private List<String> serviceTypes;
     private List<CredentialProperties> externalTools;
+    private final ShardOwnership ownership;
+    private final RouteTable routeTable = new RouteTable();
+    private volatile long refreshIntervalMillis;
+    private long lastRefresh;
+    private ExposerMetrics metrics = new ExposerMetrics();
 
     public RegistratorJob(MessagingQueue natsOps, CredentialsStore<CredentialProperties> store, List<String> serviceTypes, List<CredentialProperties> toolsCredentials) {
+        this(natsOps, store, serviceTypes, toolsCredentials, DEFAULT_REFRESH_INTERVAL_SECONDS);
+    }
+
+    public RegistratorJob(MessagingQueue natsOps, CredentialsStore<CredentialProperties> store, List<String> serviceTypes,
+                          List<CredentialProperties> toolsCredentials, long refreshIntervalSeconds) {
+        this(natsOps, store, serviceTypes, toolsCredentials, refreshIntervalSeconds, ShardOwnership.unsharded());
+    }
+
+    public RegistratorJob(MessagingQueue natsOps, CredentialsStore<CredentialProperties> store, List<String> serviceTypes,
+                          List<CredentialProperties> toolsCredentials, long refreshIntervalSeconds, ShardOwnership ownership) {
         this.natsOps = natsOps;
         this.store = store;
         this.serviceTypes = serviceTypes;
         this.externalTools = toolsCredentials;
+        this.refreshIntervalMillis = TimeUnit.SECONDS.toMillis(refreshIntervalSeconds);
+        this.ownership = ownership;
     }
 
-    public void run() {
-        for (CredentialProperties entry : externalTools) {
-            natsOps.registerPathInGoRouter(entry);
+    public synchronized void run() {
+        long start = System.currentTimeMillis();
+        List<CredentialProperties> routes = new ArrayList<>(externalTools);
+        for (String serviceType : serviceTypes) {
+            routes.addAll(store.values(serviceType));
         }
+        List<CredentialProperties> changed = routeTable.update(routes.stream()
+                .filter(route -> ownership.owns(shardKey(route)))
+                .collect(Collectors.toList()));
 
-        for (String serviceType : serviceTypes) {
-            for (CredentialProperties entry : store.values(serviceType)) {
-                natsOps.registerPathInGoRouter(entry);
-            }
+        long now = System.currentTimeMillis();
+        int published = 0;
+        if (now - lastRefresh >= refreshIntervalMillis) {
+            List<CredentialProperties> all = routeTable.routes();
+            natsOps.registerEachPathInGoRouter(all);
+            published = all.size();
+            lastRefresh = now;
+        } else if (!changed.isEmpty()) {
+            LOG.info("Publishing {} new or changed routes", changed.size());
+            natsOps.registerEachPathInGoRouter(changed);
+            published = changed.size();
         }
+        metrics.increment("registrator.cycles");
+        metrics.increment("registrator.routes.published", published);
+        metrics.submit("registrator.routes", routeTable.size());
+        metrics.recordTime("registrator.cycle", System.currentTimeMillis() - start);
+    }
+
+    public void setMetrics(ExposerMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public synchronized void requestFullRefresh() {
+        lastRefresh = 0;
+    }
+
+    public void setRefreshInterval(long refreshIntervalSeconds) {
+        this.refreshIntervalMillis = TimeUnit.SECONDS.toMillis(refreshIntervalSeconds);
+        LOG.info("Route refresh interval set to {} s", refreshIntervalSeconds);
+    }
+
+    public long getRefreshIntervalSeconds() {
+        return TimeUnit.MILLISECONDS.toSeconds(refreshIntervalMillis);
+    }
+
+    private static String shardKey(CredentialProperties route) {
+        String guid = route.getServiceInstaceGuid();
+        return guid == null || guid.isEmpty() ? route.getHostName() : guid;
     }
 }
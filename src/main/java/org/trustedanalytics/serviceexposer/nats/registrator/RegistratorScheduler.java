@@ -17,28 +17,45 @@ package org.trustedanalytics.serviceexposer.nats.registrator;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.concurrent.DefaultManagedTaskScheduler;
 import org.springframework.scheduling.support.CronTrigger;
 
+import java.util.Date;
+
 public class RegistratorScheduler {
 
     private static final Logger LOG = LoggerFactory.getLogger(RegistratorScheduler.class);
 
     private final RegistratorJob registeringJob;
     private final String natsTriggerExpression;
+    private final TaskScheduler scheduler;
+    private volatile boolean started;
 
-    @Autowired
     public RegistratorScheduler(RegistratorJob natsRegisteringJob, String natsTriggerExpression) {
+        this(natsRegisteringJob, new DefaultManagedTaskScheduler(), natsTriggerExpression);
+    }
+
+    public RegistratorScheduler(RegistratorJob natsRegisteringJob, TaskScheduler scheduler, String natsTriggerExpression) {
         this.registeringJob = natsRegisteringJob;
+        this.scheduler = scheduler;
         this.natsTriggerExpression = natsTriggerExpression;
     }
 
     public void start() {
         LOG.info("Preparing RegistratorScheduler");
-        TaskScheduler s = new DefaultManagedTaskScheduler();
-        s.schedule(registeringJob::run, new CronTrigger(natsTriggerExpression));
+        started = true;
+        scheduler.schedule(registeringJob::run, new CronTrigger(natsTriggerExpression));
         LOG.info("RegistratorScheduler started {}", natsTriggerExpression);
     }
+
+    public void routerStarted(long minimumRegisterIntervalSeconds) {
+        if (minimumRegisterIntervalSeconds > 0) {
+            registeringJob.setRefreshInterval(minimumRegisterIntervalSeconds);
+        }
+        registeringJob.requestFullRefresh();
+        if (started) {
+            scheduler.schedule(registeringJob::run, new Date());
+        }
+    }
 }
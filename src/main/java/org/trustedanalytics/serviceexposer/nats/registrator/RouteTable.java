@@ -0,0 +1,58 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer.nats.registrator;
+
+import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialProperties;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+public class RouteTable {
+
+    private Map<String, CredentialProperties> routes = new HashMap<>();
+
+    public synchronized List<CredentialProperties> update(Collection<CredentialProperties> current) {
+        Map<String, CredentialProperties> updated = new HashMap<>();
+        List<CredentialProperties> changed = new ArrayList<>();
+        for (CredentialProperties route : current) {
+            CredentialProperties known = routes.get(route.getHostName());
+            if (known == null || !sameTarget(known, route)) {
+                changed.add(route);
+            }
+            updated.put(route.getHostName(), route);
+        }
+        routes = updated;
+        return changed;
+    }
+
+    public synchronized List<CredentialProperties> routes() {
+        return new ArrayList<>(routes.values());
+    }
+
+    public synchronized int size() {
+        return routes.size();
+    }
+
+    private static boolean sameTarget(CredentialProperties known, CredentialProperties route) {
+        return Objects.equals(known.getIpAddress(), route.getIpAddress())
+                && Objects.equals(known.getPort(), route.getPort())
+                && known.isCredentialsExtracted() == route.isCredentialsExtracted();
+    }
+}
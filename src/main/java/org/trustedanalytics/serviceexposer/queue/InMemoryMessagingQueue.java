@@ -19,6 +19,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialProperties;
 
+import java.util.Collection;
+
 public class InMemoryMessagingQueue implements MessagingQueue {
 
     private static final Logger LOG = LoggerFactory.getLogger(InMemoryMessagingQueue.class);
@@ -35,6 +37,13 @@ public class InMemoryMessagingQueue implements MessagingQueue {
         );
     }
 
+    @Override
+    public void registerEachPathInGoRouter(Collection<CredentialProperties> serviceInfos) {
+        for (CredentialProperties serviceInfo : serviceInfos) {
+            registerPathInGoRouter(serviceInfo);
+        }
+    }
+
     @Override
     public void unregisterPathInGoRouter(CredentialProperties serviceInfo) {
         LOG.info("in-memory nats route unregistered: {} -> {}:{}",
@@ -43,4 +52,9 @@ public class InMemoryMessagingQueue implements MessagingQueue {
                 serviceInfo.getPort()
         );
     }
+
+    @Override
+    public void addRouterStartListener(RouterStartListener listener) {
+        LOG.info("in-memory nats has no router, router start listener ignored");
+    }
 }
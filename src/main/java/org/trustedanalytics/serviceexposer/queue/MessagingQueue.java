@@ -17,9 +17,15 @@ package org.trustedanalytics.serviceexposer.queue;
 
 import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialProperties;
 
+import java.util.Collection;
+
 public interface MessagingQueue {
 
     void registerPathInGoRouter(CredentialProperties serviceInfo);
 
+    void registerEachPathInGoRouter(Collection<CredentialProperties> serviceInfos);
+
     void unregisterPathInGoRouter(CredentialProperties serviceInfo);
+
+    void addRouterStartListener(RouterStartListener listener);
 }
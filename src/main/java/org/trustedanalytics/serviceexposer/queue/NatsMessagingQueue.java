@@ -16,19 +16,41 @@
 
 package org.trustedanalytics.serviceexposer.queue;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import nats.client.Message;
 import nats.client.Nats;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialProperties;
 
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
 public class NatsMessagingQueue implements MessagingQueue {
 
     private static final Logger LOG = LoggerFactory.getLogger(NatsMessagingQueue.class);
 
     private static final String NATS_ROUTE_REGISTER = "router.register";
     private static final String NATS_ROUTE_UNREGISTER = "router.unregister";
+    private static final String NATS_ROUTER_START = "router.start";
+    private static final String NATS_ROUTER_GREET = "router.greet";
+    private static final long ROUTER_GREET_TIMEOUT_SECONDS = 10;
 
     private Nats nats;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final List<RouterStartListener> routerStartListeners = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean routerStartSubscribed = new AtomicBoolean();
+    private final Map<String, RoutePayload> payloads = new ConcurrentHashMap<>();
+    private final AtomicLong publishedRoutes = new AtomicLong();
+    private final AtomicLong publishNanos = new AtomicLong();
 
     public NatsMessagingQueue(Nats nats) {
         this.nats = nats;
@@ -37,7 +59,7 @@ public class NatsMessagingQueue implements MessagingQueue {
     @Override
     public void registerPathInGoRouter(CredentialProperties serviceInfo) {
         if(serviceInfo.isCredentialsExtracted()){
-            nats.publish(NATS_ROUTE_REGISTER, serviceInfo.toString());
+            publish(NATS_ROUTE_REGISTER, payload(serviceInfo));
             LOG.info("Route registered: {}:{} -> {}",
                     serviceInfo.getIpAddress(),
                     serviceInfo.getPort(),
@@ -48,10 +70,28 @@ public class NatsMessagingQueue implements MessagingQueue {
         }
     }
 
+    @Override
+    public void registerEachPathInGoRouter(Collection<CredentialProperties> serviceInfos) {
+        long start = System.nanoTime();
+        int registered = 0;
+        for (CredentialProperties serviceInfo : serviceInfos) {
+            if (serviceInfo.isCredentialsExtracted()) {
+                publish(NATS_ROUTE_REGISTER, payload(serviceInfo));
+                registered++;
+            }
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        LOG.info("Routes registered: {} in {} ms ({} routes/s)", registered, elapsedMillis,
+                elapsedNanos > 0 ? registered * TimeUnit.SECONDS.toNanos(1) / elapsedNanos : registered);
+    }
+
     @Override
     public void unregisterPathInGoRouter(CredentialProperties serviceInfo) {
         if(serviceInfo.isCredentialsExtracted()){
-            nats.publish(NATS_ROUTE_UNREGISTER, serviceInfo.toString());
+            publish(NATS_ROUTE_UNREGISTER, payload(serviceInfo));
+            payloads.remove(serviceInfo.getHostName());
             LOG.info("Route unregistered: {} -> {}:{}",
                     serviceInfo.getHostName(),
                     serviceInfo.getIpAddress(),
@@ -59,4 +99,73 @@ public class NatsMessagingQueue implements MessagingQueue {
             );
         }
     }
+
+    @Override
+    public void addRouterStartListener(RouterStartListener listener) {
+        routerStartListeners.add(listener);
+        if (routerStartSubscribed.compareAndSet(false, true)) {
+            nats.subscribe(NATS_ROUTER_START, this::routerStarted);
+            nats.request(NATS_ROUTER_GREET, "", ROUTER_GREET_TIMEOUT_SECONDS, TimeUnit.SECONDS, this::routerStarted);
+            LOG.info("Subscribed to {}, greeting routers", NATS_ROUTER_START);
+        }
+    }
+
+    public long getPublishedRoutes() {
+        return publishedRoutes.get();
+    }
+
+    public long getPublishLatencyNanos() {
+        return publishNanos.get();
+    }
+
+    private void publish(String subject, String payload) {
+        long start = System.nanoTime();
+        nats.publish(subject, payload);
+        publishNanos.addAndGet(System.nanoTime() - start);
+        publishedRoutes.incrementAndGet();
+    }
+
+    private void routerStarted(Message message) {
+        long registerInterval = 0;
+        try {
+            registerInterval = mapper.readTree(message.getBody()).path("minimumRegisterIntervalInSeconds").asLong(0);
+        } catch (IOException e) {
+            LOG.warn("Could not parse router start message: {}", message.getBody(), e);
+        }
+        LOG.info("Router started, minimum register interval: {} s", registerInterval);
+        for (RouterStartListener listener : routerStartListeners) {
+            try {
+                listener.routerStarted(registerInterval);
+            } catch (RuntimeException e) {
+                LOG.error(e.getMessage(), e);
+            }
+        }
+    }
+
+    private String payload(CredentialProperties serviceInfo) {
+        RoutePayload cached = payloads.get(serviceInfo.getHostName());
+        if (cached != null && cached.matches(serviceInfo)) {
+            return cached.payload;
+        }
+
+        RoutePayload payload = new RoutePayload(serviceInfo);
+        payloads.put(serviceInfo.getHostName(), payload);
+        return payload.payload;
+    }
+
+    private static class RoutePayload {
+        private final String ipAddress;
+        private final String port;
+        private final String payload;
+
+        RoutePayload(CredentialProperties serviceInfo) {
+            this.ipAddress = serviceInfo.getIpAddress();
+            this.port = serviceInfo.getPort();
+            this.payload = serviceInfo.toString();
+        }
+
+        boolean matches(CredentialProperties serviceInfo) {
+            return Objects.equals(ipAddress, serviceInfo.getIpAddress()) && Objects.equals(port, serviceInfo.getPort());
+        }
+    }
 }
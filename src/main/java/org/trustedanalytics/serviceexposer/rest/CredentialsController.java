@@ -16,6 +16,7 @@
 package org.trustedanalytics.serviceexposer.rest;
 
 import com.google.common.collect.ImmutableMap;
+import feign.FeignException;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
@@ -23,23 +24,38 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.trustedanalytics.cloud.cc.api.CcOperations;
 import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialProperties;
 import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialsStore;
 import rx.Observable;
+import rx.Scheduler;
+import rx.schedulers.Schedulers;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
+import static java.util.stream.Collectors.groupingBy;
 import static java.util.stream.Collectors.toMap;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 import static org.springframework.web.bind.annotation.RequestMethod.GET;
@@ -53,11 +69,20 @@ public class CredentialsController {
 
     private final CcOperations ccOperations;
     private final CredentialsStore<CredentialProperties> store;
+    private final SpaceAccessCache spaceAccessCache;
+    private final Scheduler scheduler;
+    private final long asyncTimeoutMillis;
 
     @Autowired
-    public CredentialsController(@Qualifier("ControllerClient") CcOperations ccOperations, CredentialsStore<CredentialProperties> store) {
+    public CredentialsController(@Qualifier("ControllerClient") CcOperations ccOperations, CredentialsStore<CredentialProperties> store,
+                                 SpaceAccessCache spaceAccessCache,
+                                 @Qualifier("controllerExecutor") ExecutorService executor,
+                                 @Value("${controller.async.timeoutMillis:30000}") long asyncTimeoutMillis) {
         this.ccOperations = ccOperations;
         this.store = store;
+        this.spaceAccessCache = spaceAccessCache;
+        this.scheduler = Schedulers.from(executor);
+        this.asyncTimeoutMillis = asyncTimeoutMillis;
     }
 
     @ApiOperation(
@@ -71,17 +96,33 @@ public class CredentialsController {
     })
     @RequestMapping(value = GET_SERVICES_LIST_URL, method = GET, produces = APPLICATION_JSON_VALUE)
 
-    public ResponseEntity<?> getAllCredentials(
+    public DeferredResult<ResponseEntity<?>> getAllCredentials(
             @RequestParam(required = true) UUID space,
             @RequestParam(required = true) String service) {
-        return ccOperations.getSpace(space)
-                .map(s -> new ResponseEntity<>(getCredentialsInJson(service, s.getGuid()), HttpStatus.OK))
+        String subject = currentSubject();
+        Optional<Boolean> member = subject == null ? Optional.empty() : spaceAccessCache.isMember(subject, space);
+        if (member.isPresent()) {
+            DeferredResult<ResponseEntity<?>> result = new DeferredResult<>();
+            result.setResult(member.get()
+                    ? new ResponseEntity<>(getCredentialsInJson(service, space), HttpStatus.OK)
+                    : new ResponseEntity<>(Collections.emptyMap(), HttpStatus.UNAUTHORIZED));
+            return result;
+        }
+
+        return toDeferredResult(ccOperations.getSpace(space)
+                .doOnNext(s -> {
+                    if (subject != null) {
+                        spaceAccessCache.granted(subject, space);
+                    }
+                })
+                .<ResponseEntity<?>>map(s -> new ResponseEntity<>(getCredentialsInJson(service, s.getGuid()), HttpStatus.OK))
                 .onErrorReturn(er -> {
                     LOG.error("Exception occurred:", er);
+                    if (subject != null && isAccessDenied(er)) {
+                        spaceAccessCache.denied(subject, space);
+                    }
                     return new ResponseEntity<>(Collections.emptyMap(), HttpStatus.UNAUTHORIZED);
-                })
-                .toBlocking()
-                .single();
+                }));
     }
 
     @ApiOperation(
@@ -94,20 +135,55 @@ public class CredentialsController {
             @ApiResponse(code = 500, message = "Internal server error, see logs for details")
     })
     @RequestMapping(value = GET_CREDENTIALS_LIST_FOR_ORG_URL, method = GET, produces = APPLICATION_JSON_VALUE)
-    public ResponseEntity<?> getAllCredentialsInOrg(
+    public DeferredResult<ResponseEntity<?>> getAllCredentialsInOrg(
             @PathVariable UUID org,
             @RequestParam(required = true) String service) {
-        return ccOperations.getSpaces(org)
-                .map(s -> getCredentialsInJson(service, s.getGuid()))
-                .flatMap(json -> Observable.from(getFlattenedCredentials(json)))
+        return toDeferredResult(ccOperations.getSpaces(org)
+                .map(s -> s.getGuid().toString())
                 .toList()
-                .map(instances -> new ResponseEntity<>(instances, HttpStatus.OK))
+                .<ResponseEntity<?>>map(spaces -> new ResponseEntity<>(getCredentialsInSpaces(service, spaces), HttpStatus.OK))
                 .onErrorReturn(er -> {
                     LOG.error("Exception occurred:", er);
                     return new ResponseEntity<>(Collections.emptyList(), HttpStatus.UNAUTHORIZED);
-                })
-                .toBlocking()
-                .single();
+                }));
+    }
+
+    private static String currentSubject() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth == null ? null : auth.getName();
+    }
+
+    private static boolean isAccessDenied(Throwable er) {
+        if (er instanceof FeignException) {
+            int status = ((FeignException) er).status();
+            return status == HttpStatus.UNAUTHORIZED.value()
+                    || status == HttpStatus.FORBIDDEN.value()
+                    || status == HttpStatus.NOT_FOUND.value();
+        }
+        return false;
+    }
+
+    private DeferredResult<ResponseEntity<?>> toDeferredResult(Observable<ResponseEntity<?>> response) {
+        DeferredResult<ResponseEntity<?>> result =
+                new DeferredResult<>(asyncTimeoutMillis, new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE));
+        try {
+            response.subscribeOn(scheduler)
+                    .timeout(asyncTimeoutMillis, TimeUnit.MILLISECONDS)
+                    .single()
+                    .subscribe(result::setResult, er -> failed(result, er));
+        } catch (RejectedExecutionException e) {
+            failed(result, e);
+        }
+        return result;
+    }
+
+    private static void failed(DeferredResult<ResponseEntity<?>> result, Throwable er) {
+        if (er instanceof RejectedExecutionException || er instanceof TimeoutException) {
+            LOG.warn("Request not served: {}", er.toString());
+            result.setErrorResult(new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE));
+        } else {
+            result.setErrorResult(er);
+        }
     }
 
     private static Collection<Map<String, String>> getFlattenedCredentials(Map<String, Map<String, String>> instances) {
@@ -119,16 +195,42 @@ public class CredentialsController {
                 .collect(Collectors.toList());
     }
 
+    private Collection<Map<String, String>> getCredentialsInSpaces(String serviceType, Collection<String> spaceGuids) {
+        Set<String> spaces = new HashSet<>(spaceGuids);
+        try {
+            return store.values(serviceType).stream()
+                    .filter(s -> spaces.contains(s.getSpaceGuid()))
+                    .filter(f -> f.isCredentialsExtracted())
+                    .collect(groupingBy(CredentialProperties::getSpaceGuid))
+                    .values().stream()
+                    .map(CredentialsController::credentialsByName)
+                    .flatMap(json -> getFlattenedCredentials(json).stream())
+                    .collect(Collectors.toList());
+
+        } catch (Exception e) {
+            LOG.error(e.getMessage(), e);
+        }
+        return Collections.emptyList();
+    }
+
     public Map<String, Map<String, String>> getCredentialsInJson(String serviceType, UUID spaceGuid) {
         try {
-            return store.values(serviceType).stream().
-                    filter(s -> s.getSpaceGuid().equals(spaceGuid.toString())).
+            return credentialsByName(store.valuesInSpace(serviceType, spaceGuid.toString()).stream().
                     filter(f -> f.isCredentialsExtracted()).
-                    collect(toMap(CredentialProperties::getName, CredentialProperties::retriveMapForm));
+                    collect(Collectors.toList()));
 
         } catch (Exception e) {
             LOG.error(e.getMessage(), e);
         }
         return Collections.emptyMap();
     }
+
+    private static Map<String, Map<String, String>> credentialsByName(List<CredentialProperties> inSpace) {
+        try {
+            return inSpace.stream().collect(toMap(CredentialProperties::getName, CredentialProperties::retriveMapForm));
+        } catch (IllegalStateException e) {
+            LOG.error(e.getMessage(), e);
+        }
+        return Collections.emptyMap();
+    }
 }
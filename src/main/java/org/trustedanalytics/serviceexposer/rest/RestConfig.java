@@ -0,0 +1,48 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer.rest;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+
+import java.util.concurrent.ExecutorService;
+
+@Configuration
+public class RestConfig {
+
+    @Value("${controller.spaceAccessCache.ttlSeconds:30}")
+    private long spaceAccessTtlSeconds;
+
+    @Value("${controller.spaceAccessCache.negativeTtlSeconds:10}")
+    private long spaceAccessNegativeTtlSeconds;
+
+    @Value("${controller.spaceAccessCache.maximumSize:10000}")
+    private long spaceAccessMaximumSize;
+
+    @Bean
+    @Qualifier("controllerExecutor")
+    protected ExecutorService controllerExecutor(@Qualifier("controllerPool") ExecutorService controllerPool) {
+        return new DelegatingSecurityContextExecutorService(controllerPool);
+    }
+
+    @Bean
+    protected SpaceAccessCache spaceAccessCache() {
+        return new SpaceAccessCache(spaceAccessTtlSeconds, spaceAccessNegativeTtlSeconds, spaceAccessMaximumSize);
+    }
+}
@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer.rest;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+public class SpaceAccessCache {
+
+    private final Cache<String, Boolean> grantedAccess;
+    private final Cache<String, Boolean> deniedAccess;
+
+    public SpaceAccessCache(long ttlSeconds, long negativeTtlSeconds, long maximumSize) {
+        this.grantedAccess = CacheBuilder.newBuilder()
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        this.deniedAccess = CacheBuilder.newBuilder()
+                .expireAfterWrite(negativeTtlSeconds, TimeUnit.SECONDS)
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+    }
+
+    public Optional<Boolean> isMember(String subject, UUID space) {
+        String key = key(subject, space);
+        if (grantedAccess.getIfPresent(key) != null) {
+            return Optional.of(true);
+        }
+        if (deniedAccess.getIfPresent(key) != null) {
+            return Optional.of(false);
+        }
+        return Optional.empty();
+    }
+
+    public void granted(String subject, UUID space) {
+        String key = key(subject, space);
+        deniedAccess.invalidate(key);
+        grantedAccess.put(key, true);
+    }
+
+    public void denied(String subject, UUID space) {
+        String key = key(subject, space);
+        grantedAccess.invalidate(key);
+        deniedAccess.put(key, false);
+    }
+
+    public CacheStats getGrantedAccessStats() {
+        return grantedAccess.stats();
+    }
+
+    public CacheStats getDeniedAccessStats() {
+        return deniedAccess.stats();
+    }
+
+    public long size() {
+        return grantedAccess.size() + deniedAccess.size();
+    }
+
+    private static String key(String subject, UUID space) {
+        return subject + ":" + space;
+    }
+}
@@ -0,0 +1,133 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer.retriver;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+public class ClientTokenCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ClientTokenCache.class);
+
+    private static final long DEFAULT_MIN_REFRESH_INTERVAL_SECONDS = 5;
+
+    private final Supplier<OAuth2AccessToken> tokenSource;
+    private final ScheduledExecutorService refresher;
+    private final long refreshBeforeExpirySeconds;
+    private final long minRefreshIntervalSeconds;
+    private final AtomicReference<CompletableFuture<OAuth2AccessToken>> pendingRefresh = new AtomicReference<>();
+    private volatile OAuth2AccessToken token;
+    private volatile long refreshAt;
+
+    public ClientTokenCache(Supplier<OAuth2AccessToken> tokenSource, ScheduledExecutorService refresher, long refreshBeforeExpirySeconds) {
+        this(tokenSource, refresher, refreshBeforeExpirySeconds, DEFAULT_MIN_REFRESH_INTERVAL_SECONDS);
+    }
+
+    public ClientTokenCache(Supplier<OAuth2AccessToken> tokenSource, ScheduledExecutorService refresher, long refreshBeforeExpirySeconds,
+                            long minRefreshIntervalSeconds) {
+        this.tokenSource = tokenSource;
+        this.refresher = refresher;
+        this.refreshBeforeExpirySeconds = refreshBeforeExpirySeconds;
+        this.minRefreshIntervalSeconds = minRefreshIntervalSeconds;
+    }
+
+    public String getToken() {
+        OAuth2AccessToken current = token;
+        if (current == null || current.isExpired()) {
+            return await(refresh()).getValue();
+        }
+        if (System.currentTimeMillis() >= refreshAt) {
+            refresh();
+        }
+        return current.getValue();
+    }
+
+    CompletableFuture<OAuth2AccessToken> refresh() {
+        while (true) {
+            CompletableFuture<OAuth2AccessToken> inFlight = pendingRefresh.get();
+            if (inFlight != null) {
+                return inFlight;
+            }
+            CompletableFuture<OAuth2AccessToken> refresh = new CompletableFuture<>();
+            if (pendingRefresh.compareAndSet(null, refresh)) {
+                try {
+                    refresher.execute(() -> fetchToken(refresh));
+                } catch (RejectedExecutionException e) {
+                    fetchToken(refresh);
+                }
+                return refresh;
+            }
+        }
+    }
+
+    private void fetchToken(CompletableFuture<OAuth2AccessToken> refresh) {
+        try {
+            OAuth2AccessToken fetched = tokenSource.get();
+            long delay = refreshDelaySeconds(fetched);
+            refreshAt = delay < 0 ? Long.MAX_VALUE : System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(delay);
+            token = fetched;
+            pendingRefresh.compareAndSet(refresh, null);
+            refresh.complete(fetched);
+            scheduleRefresh(delay);
+        } catch (RuntimeException e) {
+            LOG.error("Client credentials token refresh failed", e);
+            pendingRefresh.compareAndSet(refresh, null);
+            refresh.completeExceptionally(e);
+        }
+    }
+
+    private long refreshDelaySeconds(OAuth2AccessToken fetched) {
+        if (fetched.getExpiration() == null) {
+            return -1;
+        }
+        long expiresIn = fetched.getExpiresIn();
+        return Math.max(Math.max(expiresIn - refreshBeforeExpirySeconds, expiresIn / 2), minRefreshIntervalSeconds);
+    }
+
+    private void scheduleRefresh(long delay) {
+        if (delay < 0) {
+            return;
+        }
+        try {
+            refresher.schedule(this::refresh, delay, TimeUnit.SECONDS);
+        } catch (RejectedExecutionException e) {
+            LOG.warn("Proactive token refresh could not be scheduled", e);
+        }
+    }
+
+    private static OAuth2AccessToken await(CompletableFuture<OAuth2AccessToken> refresh) {
+        try {
+            return refresh.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for client credentials token", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -23,8 +23,10 @@ import org.trustedanalytics.cloud.cc.api.CcOperations;
 import org.trustedanalytics.cloud.cc.api.CcServiceKey;
 import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialProperties;
 import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialsStore;
+import org.trustedanalytics.serviceexposer.metrics.ExposerMetrics;
 import org.trustedanalytics.serviceexposer.queue.MessagingQueue;
 
+import java.util.Collection;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
@@ -39,12 +41,21 @@ public class CredentialsRetriver {
     private MessagingQueue natsOps;
     private String apiBaseUrl;
     private BiConsumer<String, CcExtendedServiceInstance> credentialsRetrieveFailedStrategy;
+    private ProvisioningPipeline pipeline;
+    private ServiceKeysIndex serviceKeys;
+    private ExposerMetrics metrics = new ExposerMetrics();
 
     public CredentialsRetriver(CcOperations ccClient, CredentialsStore<CredentialProperties> store, MessagingQueue natsOps, String apiBaseUrl, boolean retrieveCredentialsOnlyOnceStrategyEnabled) {
+        this(ccClient, store, natsOps, apiBaseUrl, retrieveCredentialsOnlyOnceStrategyEnabled, null);
+    }
+
+    public CredentialsRetriver(CcOperations ccClient, CredentialsStore<CredentialProperties> store, MessagingQueue natsOps, String apiBaseUrl, boolean retrieveCredentialsOnlyOnceStrategyEnabled, ProvisioningPipeline pipeline) {
         this.ccClient = ccClient;
         this.store = store;
         this.natsOps = natsOps;
         this.apiBaseUrl = apiBaseUrl;
+        this.pipeline = pipeline;
+        this.serviceKeys = new ServiceKeysIndex(ccClient);
         this.credentialsRetrieveFailedStrategy = (type,serviceInstance)->{};
 
         if(retrieveCredentialsOnlyOnceStrategyEnabled){
@@ -52,41 +63,68 @@ public class CredentialsRetriver {
         }
     }
 
-    public void saveCredentialsUsingEnvs(String serviceType, CcExtendedServiceInstance serviceInstance) {
+    public Submission saveCredentialsUsingEnvs(String serviceType, CcExtendedServiceInstance serviceInstance) {
         UUID serviceInstanceGuid = serviceInstance.getMetadata().getGuid();
         try {
-            if (!store.exists(serviceType, serviceInstanceGuid)) {
-                LOG.info("detected creation of service instance : " + serviceInstanceGuid);
+            if (pipeline == null) {
+                publishCredentials(serviceType, serviceInstanceGuid, retrieveCredentials(serviceInstance));
+                return Submission.ACCEPTED;
+            }
+            Submission submission = pipeline.submit(serviceInstanceGuid,
+                    () -> retrieveCredentials(serviceInstance),
+                    credentials -> publishCredentials(serviceType, serviceInstanceGuid, credentials),
+                    e -> credentialsRetrieveFailed(serviceType, serviceInstance, e));
+            if (submission == Submission.SATURATED) {
+                metrics.increment("credentials.provisionDeferred");
+            }
+            return submission;
+        } catch (Exception e) {
+            credentialsRetrieveFailed(serviceType, serviceInstance, e);
+            return Submission.ACCEPTED;
+        }
+    }
 
-                CcServiceKey serviceInstanceKey = prepareServiceKey(serviceInstance);
-                UUID serviceInstanceKeyGuid = serviceInstanceKey.getMetadata().getGuid();
-                LOG.info("service key prepared: " + serviceInstanceKeyGuid);
+    public void setMetrics(ExposerMetrics metrics) {
+        this.metrics = metrics;
+    }
 
-                CredentialProperties credentials = parseCredentials(serviceInstance, serviceInstanceKey);
-                LOG.info("service credentials retrieved from key: " + serviceInstanceKeyGuid);
+    public void invalidateServiceKeys() {
+        serviceKeys.invalidate();
+    }
 
-                ccClient.deleteServiceKey(serviceInstanceKeyGuid);
-                LOG.info("service key deleted: " + serviceInstanceKeyGuid);
+    private CredentialProperties retrieveCredentials(CcExtendedServiceInstance serviceInstance) {
+        long start = System.currentTimeMillis();
+        LOG.info("detected creation of service instance : " + serviceInstance.getMetadata().getGuid());
 
-                store.put(serviceType, serviceInstanceGuid, credentials);
-                natsOps.registerPathInGoRouter(credentials);
-            }
-        } catch (Exception e) {
-            credentialsRetrieveFailedStrategy.accept(serviceType, serviceInstance);
-            LOG.error("failed to get credentials from service instance: " + serviceInstanceGuid, e);
-        }
+        CcServiceKey serviceInstanceKey = prepareServiceKey(serviceInstance);
+        UUID serviceInstanceKeyGuid = serviceInstanceKey.getMetadata().getGuid();
+        LOG.info("service key prepared: " + serviceInstanceKeyGuid);
+
+        CredentialProperties credentials = parseCredentials(serviceInstance, serviceInstanceKey);
+        LOG.info("service credentials retrieved from key: " + serviceInstanceKeyGuid);
+
+        ccClient.deleteServiceKey(serviceInstanceKeyGuid);
+        serviceKeys.remove(serviceInstance.getMetadata().getGuid());
+        LOG.info("service key deleted: " + serviceInstanceKeyGuid);
+        metrics.recordTime("credentials.provision", System.currentTimeMillis() - start);
+        metrics.increment("credentials.provisioned");
+        return credentials;
+    }
+
+    private void publishCredentials(String serviceType, UUID serviceInstanceGuid, CredentialProperties credentials) {
+        store.put(serviceType, serviceInstanceGuid, credentials);
+        natsOps.registerPathInGoRouter(credentials);
+    }
+
+    private void credentialsRetrieveFailed(String serviceType, CcExtendedServiceInstance serviceInstance, Exception e) {
+        metrics.increment("credentials.provisionFailures");
+        credentialsRetrieveFailedStrategy.accept(serviceType, serviceInstance);
+        LOG.error("failed to get credentials from service instance: " + serviceInstance.getMetadata().getGuid(), e);
     }
 
     private CcServiceKey prepareServiceKey(CcExtendedServiceInstance serviceInstance) {
         UUID instanceGuid = serviceInstance.getMetadata().getGuid();
-        CcServiceKey existingKey = ccClient.getServiceKeys()
-                .filter(k -> k.getEntity().getName().contains(instanceGuid.toString()))
-                .firstOrDefault(null)
-                .toBlocking()
-                .first();
-
-        return Optional
-                .ofNullable(existingKey)
+        return serviceKeys.find(instanceGuid)
                 .orElseGet(() -> ccClient.createServiceKey(new CcNewServiceKey(instanceGuid, instanceGuid + "-key"))
                         .toBlocking()
                         .first());
@@ -126,5 +164,17 @@ public class CredentialsRetriver {
             LOG.error(e.getMessage(), e);
         }
     }
-}
 
+    public void deleteServiceInstances(String serviceType, Collection<UUID> serviceInstanceGuids) {
+        try {
+            Map<UUID, CredentialProperties> serviceInfos = store.getAll(serviceType, serviceInstanceGuids);
+            if (!serviceInfos.isEmpty()) {
+                LOG.info("detected deletion of service instances: " + serviceInfos.keySet());
+                store.deleteAll(serviceType, serviceInfos.keySet());
+                serviceInfos.values().forEach(natsOps::unregisterPathInGoRouter);
+            }
+        } catch (Exception e) {
+            LOG.error(e.getMessage(), e);
+        }
+    }
+}
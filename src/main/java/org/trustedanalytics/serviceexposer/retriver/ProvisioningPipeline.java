@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer.retriver;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialProperties;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+public class ProvisioningPipeline {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProvisioningPipeline.class);
+
+    private final ExecutorService keyStage;
+    private final ExecutorService publishStage;
+    private final int capacity;
+    private final Set<UUID> inFlight = ConcurrentHashMap.newKeySet();
+
+    public ProvisioningPipeline(ExecutorService keyStage, ExecutorService publishStage, int capacity) {
+        this.keyStage = keyStage;
+        this.publishStage = publishStage;
+        this.capacity = capacity;
+    }
+
+    public Submission submit(UUID serviceInstanceGuid, Supplier<CredentialProperties> retrieve, Consumer<CredentialProperties> publish, Consumer<Exception> failure) {
+        Submission reserved = reserve(serviceInstanceGuid);
+        if (reserved != Submission.ACCEPTED) {
+            return reserved;
+        }
+
+        try {
+            keyStage.execute(() -> {
+                try {
+                    CredentialProperties credentials = retrieve.get();
+                    publishStage.execute(() -> {
+                        try {
+                            publish.accept(credentials);
+                        } catch (Exception e) {
+                            failure.accept(e);
+                        } finally {
+                            inFlight.remove(serviceInstanceGuid);
+                        }
+                    });
+                } catch (Exception e) {
+                    inFlight.remove(serviceInstanceGuid);
+                    failure.accept(e);
+                }
+            });
+            return Submission.ACCEPTED;
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(serviceInstanceGuid);
+            LOG.debug("provisioning pipeline rejected service instance: {}", serviceInstanceGuid);
+            return Submission.SATURATED;
+        }
+    }
+
+    private synchronized Submission reserve(UUID serviceInstanceGuid) {
+        if (inFlight.contains(serviceInstanceGuid)) {
+            return Submission.ALREADY_IN_FLIGHT;
+        }
+        if (inFlight.size() >= capacity) {
+            LOG.debug("provisioning pipeline full, deferring service instance: {}", serviceInstanceGuid);
+            return Submission.SATURATED;
+        }
+        inFlight.add(serviceInstanceGuid);
+        return Submission.ACCEPTED;
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+}
@@ -16,34 +16,46 @@
 package org.trustedanalytics.serviceexposer.retriver;
 
 import feign.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.context.annotation.Scope;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.client.OAuth2RestTemplate;
 import org.springframework.security.oauth2.client.resource.OAuth2ProtectedResourceDetails;
+import org.springframework.security.oauth2.client.token.DefaultAccessTokenRequest;
 import org.springframework.security.oauth2.client.token.grant.client.ClientCredentialsAccessTokenProvider;
 import org.springframework.security.oauth2.client.token.grant.client.ClientCredentialsResourceDetails;
 import org.trustedanalytics.cloud.auth.AuthTokenRetriever;
 import org.trustedanalytics.cloud.auth.OAuth2TokenRetriever;
 import org.trustedanalytics.cloud.cc.FeignClient;
 import org.trustedanalytics.cloud.cc.api.CcOperations;
+import org.trustedanalytics.serviceexposer.executor.ExecutorRegistry;
 import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialProperties;
 import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialsStore;
+import org.trustedanalytics.serviceexposer.metrics.CcRequestCounter;
+import org.trustedanalytics.serviceexposer.metrics.ExposerMetrics;
 import org.trustedanalytics.serviceexposer.queue.MessagingQueue;
 
+import java.util.Collections;
 import java.util.List;
-
-import static org.springframework.context.annotation.ScopedProxyMode.INTERFACES;
-import static org.springframework.web.context.WebApplicationContext.SCOPE_REQUEST;
+import java.util.concurrent.ExecutorService;
 
 @Configuration
 public class RetriverConfig {
 
+    @Autowired
+    private ExposerMetrics metrics;
+
+    @Autowired
+    @Qualifier("tokenRefreshTaskScheduler")
+    private ThreadPoolTaskScheduler tokenRefreshScheduler;
+
     @Value("${oauth.resource:/}")
     private String apiBaseUrl;
 
@@ -53,6 +65,15 @@ public class RetriverConfig {
     @Value("#{'${restrictedServicesNames}'.split(',')}")
     private List<String> restricedNames;
 
+    @Value("${checker.catalogCacheTtlSeconds:300}")
+    private long catalogCacheTtlSeconds;
+
+    @Value("${checker.incremental.eventsPageSize:100}")
+    private int eventsPageSize;
+
+    @Value("${checker.token.refreshBeforeExpirySeconds:60}")
+    private long tokenRefreshBeforeExpirySeconds;
+
     @Bean
     @ConfigurationProperties("spring.oauth2.client")
     public OAuth2ProtectedResourceDetails clientCredentials() {
@@ -64,25 +85,66 @@ public class RetriverConfig {
         OAuth2RestTemplate template = new OAuth2RestTemplate(clientCredentials());
         ClientCredentialsAccessTokenProvider provider = new ClientCredentialsAccessTokenProvider();
         template.setAccessTokenProvider(provider);
+        CcRequestCounter requestCounter = ccRequestCounter();
+        template.setInterceptors(Collections.<ClientHttpRequestInterceptor>singletonList((request, body, execution) -> {
+            requestCounter.record();
+            return execution.execute(request, body);
+        }));
         return template;
     }
 
+    @Bean
+    public CcRequestCounter ccRequestCounter() {
+        return new CcRequestCounter(metrics);
+    }
+
+    @Bean
+    protected ClientTokenCache clientTokenCache() {
+        ClientCredentialsAccessTokenProvider provider = new ClientCredentialsAccessTokenProvider();
+        OAuth2ProtectedResourceDetails resource = clientCredentials();
+        ClientTokenCache tokenCache = new ClientTokenCache(
+                () -> provider.obtainAccessToken(resource, new DefaultAccessTokenRequest()),
+                tokenRefreshScheduler.getScheduledExecutor(), tokenRefreshBeforeExpirySeconds);
+        tokenCache.refresh();
+        return tokenCache;
+    }
+
     @Bean
     @Qualifier("CredentialRetriverClient")
     protected CcOperations ccPrivilegedClient() {
+        ClientTokenCache tokenCache = clientTokenCache();
+        CcRequestCounter requestCounter = ccRequestCounter();
         return new FeignClient(apiBaseUrl, builder -> builder
-                .requestInterceptor(template -> template.header("Authorization", "bearer " + clientRestTemplate().getAccessToken().toString()))
+                .requestInterceptor(template -> {
+                    requestCounter.record();
+                    template.header("Authorization", "bearer " + tokenCache.getToken());
+                })
                 .logLevel(Logger.Level.NONE));
     }
 
     @Bean
-    protected CredentialsRetriver credentialsRetriver(MessagingQueue natsOps, CredentialsStore<CredentialProperties> store) {
-        return new CredentialsRetriver(ccPrivilegedClient(), store, natsOps, apiBaseUrl, retireveStrategy);
+    protected ProvisioningPipeline provisioningPipeline(ExecutorRegistry executorRegistry,
+                                                        @Qualifier("provisioningPool") ExecutorService keyStage,
+                                                        @Qualifier("provisioningPublishPool") ExecutorService publishStage) {
+        return new ProvisioningPipeline(keyStage, publishStage, executorRegistry.capacity(keyStage));
+    }
+
+    @Bean
+    protected CredentialsRetriver credentialsRetriver(MessagingQueue natsOps, CredentialsStore<CredentialProperties> store,
+                                                      ProvisioningPipeline provisioningPipeline) {
+        CredentialsRetriver retriver = new CredentialsRetriver(ccPrivilegedClient(), store, natsOps, apiBaseUrl, retireveStrategy, provisioningPipeline);
+        retriver.setMetrics(metrics);
+        return retriver;
     }
 
     @Bean
     protected ServicesRetriver servicesRetriver() {
-        return new ServicesRetriver(ccPrivilegedClient(), restricedNames);
+        return new ServicesRetriver(ccPrivilegedClient(), restricedNames, catalogCacheTtlSeconds);
+    }
+
+    @Bean
+    protected ServiceEventsRetriver serviceEventsRetriver() {
+        return new ServiceEventsRetriver(clientRestTemplate(), apiBaseUrl, eventsPageSize);
     }
 
     @Bean
@@ -92,14 +154,13 @@ public class RetriverConfig {
 
     @Bean
     @Qualifier("ControllerClient")
-    @Scope(value = SCOPE_REQUEST, proxyMode = INTERFACES)
     public CcOperations ccOperations() {
-        final Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        final String token = authTokenRetriever().getAuthToken(auth);
-
+        AuthTokenRetriever tokenRetriever = authTokenRetriever();
         return new FeignClient(apiBaseUrl, builder -> builder
-                .requestInterceptor(template -> template.header("Authorization", "bearer " + token))
+                .requestInterceptor(template -> {
+                    Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+                    template.header("Authorization", "bearer " + tokenRetriever.getAuthToken(auth));
+                })
                 .logLevel(Logger.Level.NONE));
-
     }
 }
@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer.retriver;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.web.client.RestOperations;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+public class ServiceEventsRetriver {
+
+    private static final String EPOCH = "1970-01-01T00:00:00Z";
+    private static final String EVENT_TYPES = "type IN " + String.join(",",
+            ServiceInstanceEvent.CREATE, ServiceInstanceEvent.UPDATE, ServiceInstanceEvent.DELETE);
+    private static final String EVENTS_QUERY =
+            "/v2/events?q={types}&q={timestamp}&order-direction={direction}&results-per-page={pageSize}";
+
+    private final RestOperations restTemplate;
+    private final String apiBaseUrl;
+    private final int pageSize;
+
+    public ServiceEventsRetriver(RestOperations restTemplate, String apiBaseUrl, int pageSize) {
+        this.restTemplate = restTemplate;
+        this.apiBaseUrl = apiBaseUrl;
+        this.pageSize = pageSize;
+    }
+
+    public String getLatestEventTimestamp() {
+        JsonNode page = restTemplate.getForObject(apiBaseUrl + EVENTS_QUERY, JsonNode.class,
+                EVENT_TYPES, "timestamp>=" + EPOCH, "desc", 1);
+        for (JsonNode resource : page.path("resources")) {
+            return resource.path("entity").path("timestamp").asText();
+        }
+        return EPOCH;
+    }
+
+    public List<ServiceInstanceEvent> getServiceInstanceEvents(String since) {
+        List<ServiceInstanceEvent> events = new ArrayList<>();
+        JsonNode page = restTemplate.getForObject(apiBaseUrl + EVENTS_QUERY, JsonNode.class,
+                EVENT_TYPES, "timestamp>=" + since, "asc", pageSize);
+        while (page != null) {
+            for (JsonNode resource : page.path("resources")) {
+                events.add(parseEvent(resource));
+            }
+            String nextUrl = page.path("next_url").asText(null);
+            page = nextUrl == null ? null : restTemplate.getForObject(URI.create(apiBaseUrl + nextUrl), JsonNode.class);
+        }
+        return events;
+    }
+
+    private static ServiceInstanceEvent parseEvent(JsonNode resource) {
+        JsonNode entity = resource.path("entity");
+        String servicePlanGuid = entity.path("metadata").path("request").path("service_plan_guid").asText(null);
+        return new ServiceInstanceEvent(
+                UUID.fromString(resource.path("metadata").path("guid").asText()),
+                entity.path("type").asText(),
+                UUID.fromString(entity.path("actee").asText()),
+                servicePlanGuid == null ? null : UUID.fromString(servicePlanGuid),
+                entity.path("timestamp").asText());
+    }
+}
@@ -0,0 +1,36 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer.retriver;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+public class ServiceInstanceEvent {
+
+    public static final String CREATE = "audit.service_instance.create";
+    public static final String UPDATE = "audit.service_instance.update";
+    public static final String DELETE = "audit.service_instance.delete";
+
+    private UUID eventGuid;
+    private String type;
+    private UUID serviceInstanceGuid;
+    private UUID servicePlanGuid;
+    private String timestamp;
+}
@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer.retriver;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.trustedanalytics.cloud.cc.api.CcOperations;
+import org.trustedanalytics.cloud.cc.api.CcServiceKey;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class ServiceKeysIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ServiceKeysIndex.class);
+
+    private static final Pattern GUID_PATTERN =
+            Pattern.compile("[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+
+    private final CcOperations ccClient;
+    private Map<UUID, CcServiceKey> keys;
+
+    public ServiceKeysIndex(CcOperations ccClient) {
+        this.ccClient = ccClient;
+    }
+
+    public synchronized Optional<CcServiceKey> find(UUID serviceInstanceGuid) {
+        if (keys == null) {
+            keys = load();
+        }
+        return Optional.ofNullable(keys.get(serviceInstanceGuid));
+    }
+
+    public synchronized void remove(UUID serviceInstanceGuid) {
+        if (keys != null) {
+            keys.remove(serviceInstanceGuid);
+        }
+    }
+
+    public synchronized void invalidate() {
+        keys = null;
+    }
+
+    private Map<UUID, CcServiceKey> load() {
+        Map<UUID, CcServiceKey> index = new HashMap<>();
+        ccClient.getServiceKeys()
+                .toBlocking()
+                .forEach(key -> {
+                    String name = key.getEntity().getName();
+                    if (name != null) {
+                        Matcher matcher = GUID_PATTERN.matcher(name);
+                        while (matcher.find()) {
+                            index.putIfAbsent(UUID.fromString(matcher.group()), key);
+                        }
+                    }
+                });
+        LOG.debug("service keys index loaded: {} entries", index.size());
+        return index;
+    }
+}
@@ -29,18 +29,32 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class ServicesRetriver {
 
     private static final Logger LOG = LoggerFactory.getLogger(ServicesRetriver.class);
     private static final String successfullState = "succeeded";
+    private static final long DEFAULT_CATALOG_CACHE_TTL_SECONDS = 300;
     private CcOperations ccClient;
     private List<String> restrictedNames;
+    private long catalogCacheTtlMillis;
+    private final Map<String, CachedServicePlans> servicePlans = new ConcurrentHashMap<>();
+    private final AtomicLong catalogCacheHits = new AtomicLong();
+    private final AtomicLong catalogCacheMisses = new AtomicLong();
 
     public ServicesRetriver(CcOperations ccClient, List<String> restirctedNames) {
+        this(ccClient, restirctedNames, DEFAULT_CATALOG_CACHE_TTL_SECONDS);
+    }
+
+    public ServicesRetriver(CcOperations ccClient, List<String> restirctedNames, long catalogCacheTtlSeconds) {
         this.ccClient = ccClient;
         this.restrictedNames = restirctedNames;
+        this.catalogCacheTtlMillis = TimeUnit.SECONDS.toMillis(catalogCacheTtlSeconds);
     }
 
     public Set<CcExtendedServiceInstance> getServiceInstances(String serviceType) {
@@ -62,12 +76,44 @@ public class ServicesRetriver {
             return allServiceGuidsForGivenType;
 
         } catch (Exception e) {
+            invalidateServicePlans(serviceType);
             LOG.error(e.getMessage(), e);
         }
         return Collections.emptySet();
     }
 
     public Collection<CcExtendedServicePlan> getServicePlans(String serviceType) {
+        CachedServicePlans cached = servicePlans.get(serviceType);
+        if (cached != null && System.currentTimeMillis() - cached.loadedAt < catalogCacheTtlMillis) {
+            catalogCacheHits.incrementAndGet();
+            return cached.plans;
+        }
+
+        catalogCacheMisses.incrementAndGet();
+        Collection<CcExtendedServicePlan> plans = fetchServicePlans(serviceType);
+        if (!plans.isEmpty()) {
+            servicePlans.put(serviceType, new CachedServicePlans(plans, System.currentTimeMillis()));
+        }
+        return plans;
+    }
+
+    public void invalidateServicePlans(String serviceType) {
+        servicePlans.remove(serviceType);
+    }
+
+    public void invalidateServicePlans() {
+        servicePlans.clear();
+    }
+
+    public long getCatalogCacheHits() {
+        return catalogCacheHits.get();
+    }
+
+    public long getCatalogCacheMisses() {
+        return catalogCacheMisses.get();
+    }
+
+    private Collection<CcExtendedServicePlan> fetchServicePlans(String serviceType) {
         return ccClient.getExtendedServices()
                 .filter(service -> serviceType.equals(service.getEntity().getLabel()))
                 .firstOrDefault(null)
@@ -82,5 +128,14 @@ public class ServicesRetriver {
                 .toBlocking()
                 .single();
     }
-}
 
+    private static class CachedServicePlans {
+        private final Collection<CcExtendedServicePlan> plans;
+        private final long loadedAt;
+
+        CachedServicePlans(Collection<CcExtendedServicePlan> plans, long loadedAt) {
+            this.plans = Collections.unmodifiableCollection(plans);
+            this.loadedAt = loadedAt;
+        }
+    }
+}
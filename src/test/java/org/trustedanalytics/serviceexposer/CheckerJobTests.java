@@ -16,25 +16,42 @@
 package org.trustedanalytics.routermetrics;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.boot.actuate.metrics.GaugeService;
 import org.trustedanalytics.cloud.cc.api.CcExtendedServiceInstance;
 import org.trustedanalytics.cloud.cc.api.CcMetadata;
 import org.trustedanalytics.serviceexposer.checker.CheckerJob;
+import org.trustedanalytics.serviceexposer.cluster.InMemoryLeaderElection;
+import org.trustedanalytics.serviceexposer.cluster.LeaderElection;
+import org.trustedanalytics.serviceexposer.cluster.ShardOwnership;
 import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialProperties;
 import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialsStore;
+import org.trustedanalytics.serviceexposer.metrics.CcRequestCounter;
+import org.trustedanalytics.serviceexposer.metrics.ExposerMetrics;
 import org.trustedanalytics.serviceexposer.retriver.CredentialsRetriver;
 import org.trustedanalytics.serviceexposer.retriver.ServicesRetriver;
+import org.trustedanalytics.serviceexposer.retriver.Submission;
 
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
-
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -52,13 +69,22 @@ public class CheckerJobTests {
     private CredentialsRetriver credentialsRetriver;
     @Mock
     private CredentialsStore<CredentialProperties> credentialsStore;
+    @Mock
+    private GaugeService gaugeService;
 
     private List<String> serviceTypes;
+    private ExecutorService executor;
 
     @Before
     public void setup() {
         serviceTypes = ImmutableList.of(SERVICE_TYPE_RSTUDIO,SERVICE_TYPE_IPYTHON);
-        sut = new CheckerJob(servicesRetriver, credentialsRetriver, credentialsStore,serviceTypes);
+        executor = Executors.newFixedThreadPool(serviceTypes.size());
+        sut = checkerJob(30, new InMemoryLeaderElection());
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
     }
 
     @Test
@@ -113,9 +139,8 @@ public class CheckerJobTests {
 
         sut.updateDeletedServiceInstances(SERVICE_TYPE_RSTUDIO, retrievedGuids);
 
-        verify(credentialsRetriver).deleteServiceInstance(SERVICE_TYPE_RSTUDIO, UUID.fromString(guids[0]));
-        verify(credentialsRetriver).deleteServiceInstance(SERVICE_TYPE_RSTUDIO, UUID.fromString(guids[1]));
-        verify(credentialsRetriver).deleteServiceInstance(SERVICE_TYPE_RSTUDIO, UUID.fromString(guids[2]));
+        verify(credentialsRetriver).deleteServiceInstances(SERVICE_TYPE_RSTUDIO,
+                Sets.newHashSet(UUID.fromString(guids[0]), UUID.fromString(guids[1]), UUID.fromString(guids[2])));
     }
 
     @Test
@@ -149,4 +174,114 @@ public class CheckerJobTests {
         verify(credentialsRetriver).saveCredentialsUsingEnvs(SERVICE_TYPE_RSTUDIO, s2);
         verify(credentialsRetriver).saveCredentialsUsingEnvs(SERVICE_TYPE_RSTUDIO, s3);
     }
+
+    @Test
+    public void testCheckerJobRejectedInstancesReturnedAsDeferred() {
+        CcExtendedServiceInstance accepted = new CcExtendedServiceInstance();
+        CcExtendedServiceInstance inFlight = new CcExtendedServiceInstance();
+        CcExtendedServiceInstance rejected = new CcExtendedServiceInstance();
+        accepted.setMetadata(new CcMetadata());
+        inFlight.setMetadata(new CcMetadata());
+        rejected.setMetadata(new CcMetadata());
+        accepted.getMetadata().setGuid(UUID.randomUUID());
+        inFlight.getMetadata().setGuid(UUID.randomUUID());
+        rejected.getMetadata().setGuid(UUID.randomUUID());
+        when(credentialsRetriver.saveCredentialsUsingEnvs(SERVICE_TYPE_RSTUDIO, accepted)).thenReturn(Submission.ACCEPTED);
+        when(credentialsRetriver.saveCredentialsUsingEnvs(SERVICE_TYPE_RSTUDIO, inFlight)).thenReturn(Submission.ALREADY_IN_FLIGHT);
+        when(credentialsRetriver.saveCredentialsUsingEnvs(SERVICE_TYPE_RSTUDIO, rejected)).thenReturn(Submission.SATURATED);
+
+        Set<UUID> deferred = sut.updateCreatedServiceInstances(SERVICE_TYPE_RSTUDIO, ImmutableSet.of(accepted, inFlight, rejected));
+
+        assertEquals(ImmutableSet.of(rejected.getMetadata().getGuid()), deferred);
+    }
+
+    @Test
+    public void testCheckerJobSlowServiceTypeDoesNotStallOthers() throws Exception {
+        CountDownLatch rstudioReleased = new CountDownLatch(1);
+        sut = checkerJob(1, new InMemoryLeaderElection());
+
+        CcExtendedServiceInstance s1 = new CcExtendedServiceInstance();
+        s1.setMetadata(new CcMetadata());
+        s1.getMetadata().setGuid(UUID.randomUUID());
+        Set<CcExtendedServiceInstance> ipythonGuids = Sets.newHashSet(s1);
+
+        when(servicesRetriver.getServiceInstances(SERVICE_TYPE_RSTUDIO)).thenAnswer(invocation -> {
+            rstudioReleased.await();
+            return new HashSet<CcExtendedServiceInstance>();
+        });
+        when(servicesRetriver.getServiceInstances(SERVICE_TYPE_IPYTHON)).thenReturn(ipythonGuids);
+
+        sut.run();
+        verify(credentialsRetriver).saveCredentialsUsingEnvs(SERVICE_TYPE_IPYTHON, s1);
+
+        sut.run();
+        verify(servicesRetriver).getServiceInstances(SERVICE_TYPE_RSTUDIO);
+        rstudioReleased.countDown();
+    }
+
+    @Test
+    public void testCheckerJobSaturatedExecutorSkipsServiceType() throws Exception {
+        CountDownLatch rstudioReleased = new CountDownLatch(1);
+        executor.shutdownNow();
+        executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new SynchronousQueue<>(), new ThreadPoolExecutor.AbortPolicy());
+        ExposerMetrics metrics = new ExposerMetrics();
+        sut = checkerJob(1, new InMemoryLeaderElection());
+        sut.setMetrics(metrics);
+        when(servicesRetriver.getServiceInstances(SERVICE_TYPE_RSTUDIO)).thenAnswer(invocation -> {
+            rstudioReleased.await();
+            return new HashSet<CcExtendedServiceInstance>();
+        });
+
+        sut.run();
+        rstudioReleased.countDown();
+
+        assertEquals(1, metrics.getCount("checker.serviceTypes.skipped"));
+        verify(servicesRetriver, never()).getServiceInstances(SERVICE_TYPE_IPYTHON);
+    }
+
+    @Test
+    public void testCheckerJobCountsOnlyCycleCcRequests() throws Exception {
+        ExposerMetrics metrics = new ExposerMetrics(gaugeService);
+        CcRequestCounter requestCounter = new CcRequestCounter(metrics);
+        sut.setMetrics(metrics);
+        sut.setRequestCounter(requestCounter);
+        when(servicesRetriver.getServiceInstances(SERVICE_TYPE_RSTUDIO)).thenAnswer(invocation -> {
+            requestCounter.record();
+            requestCounter.record();
+            return new HashSet<CcExtendedServiceInstance>();
+        });
+        when(servicesRetriver.getServiceInstances(SERVICE_TYPE_IPYTHON)).thenAnswer(invocation -> {
+            requestCounter.record();
+            return new HashSet<CcExtendedServiceInstance>();
+        });
+        Thread provisioning = new Thread(requestCounter::record);
+        provisioning.start();
+        provisioning.join();
+
+        sut.run();
+
+        assertEquals(4, metrics.getCount("cc.requests"));
+        verify(gaugeService).submit("gauge.checker.cycle.ccRequests", 3.0);
+    }
+
+    @Test
+    public void testCheckerJobStartsWithoutWipingStore() {
+        verify(credentialsStore, never()).cleanStore(SERVICE_TYPE_RSTUDIO);
+        verify(credentialsStore, never()).cleanStore(SERVICE_TYPE_IPYTHON);
+    }
+
+    @Test
+    public void testCheckerJobSkipsReconciliationWhenNotLeader() {
+        sut = checkerJob(30, () -> false);
+
+        sut.run();
+
+        verify(servicesRetriver, never()).getServiceInstances(SERVICE_TYPE_RSTUDIO);
+        verify(servicesRetriver, never()).getServiceInstances(SERVICE_TYPE_IPYTHON);
+    }
+
+    private CheckerJob checkerJob(long serviceTypeTimeoutSeconds, LeaderElection leaderElection) {
+        return new CheckerJob(servicesRetriver, credentialsRetriver, credentialsStore, serviceTypes, executor, serviceTypeTimeoutSeconds,
+                null, 0, ShardOwnership.unsharded(), leaderElection);
+    }
 }
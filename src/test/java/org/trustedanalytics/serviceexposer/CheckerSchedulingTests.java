@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer;
+
+import org.junit.Test;
+import org.springframework.scheduling.support.SimpleTriggerContext;
+import org.trustedanalytics.serviceexposer.checker.AdaptiveTrigger;
+import org.trustedanalytics.serviceexposer.checker.OverlapPolicy;
+import org.trustedanalytics.serviceexposer.checker.SingleFlightRunner;
+
+import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CheckerSchedulingTests {
+
+    @Test
+    public void testOverlappingTicksCoalescedIntoSingleRun() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        SingleFlightRunner sut = new SingleFlightRunner(() -> blockFirstRun(runs, started, release), OverlapPolicy.COALESCE);
+
+        Thread first = new Thread(sut);
+        first.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        sut.run();
+        sut.run();
+        sut.run();
+        release.countDown();
+        first.join(5000);
+
+        assertEquals(2, runs.get());
+        assertEquals(3, sut.getCoalescedTicks());
+    }
+
+    @Test
+    public void testOverlappingTicksSkipped() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        SingleFlightRunner sut = new SingleFlightRunner(() -> blockFirstRun(runs, started, release), OverlapPolicy.SKIP);
+
+        Thread first = new Thread(sut);
+        first.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        sut.run();
+        sut.run();
+        release.countDown();
+        first.join(5000);
+
+        assertEquals(1, runs.get());
+        assertEquals(2, sut.getSkippedTicks());
+    }
+
+    @Test
+    public void testAdaptiveTriggerBacksOffOnLongRunsAndRecoversWhenIdle() {
+        AdaptiveTrigger sut = new AdaptiveTrigger(5, 60);
+        long now = System.currentTimeMillis();
+
+        sut.nextExecutionTime(context(now, 4000));
+        assertEquals(10000, sut.getIntervalMillis());
+        sut.nextExecutionTime(context(now, 9000));
+        assertEquals(20000, sut.getIntervalMillis());
+        sut.nextExecutionTime(context(now, 100));
+        assertEquals(10000, sut.getIntervalMillis());
+        sut.nextExecutionTime(context(now, 100));
+        sut.nextExecutionTime(context(now, 100));
+        assertEquals(5000, sut.getIntervalMillis());
+    }
+
+    @Test
+    public void testAdaptiveTriggerIntervalCapped() {
+        AdaptiveTrigger sut = new AdaptiveTrigger(5, 60);
+        long now = System.currentTimeMillis();
+
+        for (int i = 0; i < 10; i++) {
+            sut.nextExecutionTime(context(now, 120000));
+        }
+
+        assertEquals(60000, sut.getIntervalMillis());
+    }
+
+    private static SimpleTriggerContext context(long start, long durationMillis) {
+        return new SimpleTriggerContext(new Date(start), new Date(start), new Date(start + durationMillis));
+    }
+
+    private static void blockFirstRun(AtomicInteger runs, CountDownLatch started, CountDownLatch release) {
+        if (runs.incrementAndGet() == 1) {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.trustedanalytics.serviceexposer.retriver.ClientTokenCache;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ClientTokenCacheTests {
+
+    private ScheduledExecutorService refresher;
+
+    private AtomicInteger fetches;
+
+    @Before
+    public void setup() {
+        refresher = Executors.newSingleThreadScheduledExecutor();
+        fetches = new AtomicInteger();
+    }
+
+    @After
+    public void tearDown() {
+        refresher.shutdownNow();
+    }
+
+    @Test
+    public void testGetTokenServedFromCache() {
+        ClientTokenCache sut = new ClientTokenCache(() -> token("first", 3600), refresher, 60);
+
+        assertEquals("first", sut.getToken());
+        assertEquals("first", sut.getToken());
+        assertEquals(1, fetches.get());
+    }
+
+    @Test
+    public void testGetTokenRefreshesInBackgroundBeforeExpiry() throws Exception {
+        List<OAuth2AccessToken> tokens = new ArrayList<>();
+        tokens.add(token("expiring", 4));
+        tokens.add(token("fresh", 3600));
+        ClientTokenCache sut = new ClientTokenCache(() -> tokens.size() > 1 ? tokens.remove(0) : tokens.get(0), refresher, 60, 1);
+
+        assertEquals("expiring", sut.getToken());
+        long deadline = System.currentTimeMillis() + 5000;
+        while (tokens.size() > 1) {
+            assertTrue(System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+        refresher.submit(() -> null).get(5, TimeUnit.SECONDS);
+
+        assertEquals("fresh", sut.getToken());
+    }
+
+    @Test
+    public void testShortLivedTokenNotRefreshedInTightLoop() throws Exception {
+        ClientTokenCache sut = new ClientTokenCache(() -> token("short", 30), refresher, 60);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals("short", sut.getToken());
+        }
+        Thread.sleep(200);
+        refresher.submit(() -> null).get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, fetches.get());
+    }
+
+    @Test
+    public void testConcurrentCallersShareSingleTokenFetch() throws Exception {
+        CountDownLatch fetchStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ClientTokenCache sut = new ClientTokenCache(() -> {
+            fetchStarted.countDown();
+            awaitQuietly(release);
+            return token("shared", 3600);
+        }, refresher, 60);
+
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(callers.submit(sut::getToken));
+        }
+        assertTrue(fetchStarted.await(5, TimeUnit.SECONDS));
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertEquals("shared", result.get(5, TimeUnit.SECONDS));
+        }
+        callers.shutdownNow();
+        assertEquals(1, fetches.get());
+    }
+
+    private OAuth2AccessToken token(String value, int expiresInSeconds) {
+        fetches.incrementAndGet();
+        DefaultOAuth2AccessToken token = new DefaultOAuth2AccessToken(value);
+        token.setExpiration(new Date(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(expiresInSeconds)));
+        return token;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer;
+
+import org.junit.Test;
+import org.springframework.data.redis.serializer.JacksonJsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialProperties;
+import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialPropertiesSerializer;
+
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CredentialPropertiesSerializerTest {
+
+    private static final String DOMAIN = ".example.com";
+
+    private final CredentialProperties credentials = new CredentialProperties(true, DOMAIN, UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(), "rstudio-\u0142", "10.10.10.10", "8787", "", "login", null);
+
+    @Test
+    public void testCompactRoundTrip() {
+        CredentialPropertiesSerializer sut = new CredentialPropertiesSerializer(true);
+
+        CredentialProperties read = sut.deserialize(sut.serialize(credentials));
+
+        assertFieldsEqual(credentials, read);
+    }
+
+    @Test
+    public void testReadsExistingJsonEntries() {
+        byte[] json = new JacksonJsonRedisSerializer<CredentialProperties>(CredentialProperties.class).serialize(credentials);
+        CredentialPropertiesSerializer sut = new CredentialPropertiesSerializer(true);
+
+        assertFieldsEqual(credentials, sut.deserialize(json));
+    }
+
+    @Test
+    public void testJsonModeReadsCompactEntries() {
+        byte[] compact = new CredentialPropertiesSerializer(true).serialize(credentials);
+        CredentialPropertiesSerializer sut = new CredentialPropertiesSerializer(false);
+
+        assertTrue(sut.serialize(credentials)[0] == '{');
+        assertFieldsEqual(credentials, sut.deserialize(compact));
+    }
+
+    @Test
+    public void testCompactEncodingSmallerThanJson() {
+        int compact = new CredentialPropertiesSerializer(true).serialize(credentials).length;
+        int json = new CredentialPropertiesSerializer(false).serialize(credentials).length;
+
+        assertTrue(compact < json);
+    }
+
+    @Test
+    public void testEmptyValueReadAsNull() {
+        assertNull(new CredentialPropertiesSerializer(true).deserialize(new byte[0]));
+    }
+
+    @Test(expected = SerializationException.class)
+    public void testUnknownEncodingRejected() {
+        new CredentialPropertiesSerializer(true).deserialize(new byte[]{1, 2, 3});
+    }
+
+    private static void assertFieldsEqual(CredentialProperties expected, CredentialProperties actual) {
+        assertEquals(expected.isCredentialsExtracted(), actual.isCredentialsExtracted());
+        assertEquals(expected.getServiceInstaceGuid(), actual.getServiceInstaceGuid());
+        assertEquals(expected.getSpaceGuid(), actual.getSpaceGuid());
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getHostName(), actual.getHostName());
+        assertEquals(expected.getIpAddress(), actual.getIpAddress());
+        assertEquals(expected.getPort(), actual.getPort());
+        assertEquals(expected.getLogin(), actual.getLogin());
+        assertEquals(expected.getPassword(), actual.getPassword());
+    }
+}
@@ -0,0 +1,172 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.trustedanalytics.cloud.cc.api.CcOperations;
+import org.trustedanalytics.cloud.cc.api.CcSpace;
+import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialProperties;
+import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialsStore;
+import org.trustedanalytics.serviceexposer.rest.CredentialsController;
+import org.trustedanalytics.serviceexposer.rest.SpaceAccessCache;
+import rx.Observable;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CredentialsControllerTests {
+
+    private static final String SERVICE_TYPE = "rstudio";
+    private static final String SUBJECT = "user";
+
+    @Mock
+    private CcOperations ccOperations;
+
+    @Mock
+    private CredentialsStore<CredentialProperties> store;
+
+    private SpaceAccessCache spaceAccessCache;
+    private ExecutorService executor;
+    private UUID space;
+
+    @Before
+    public void setUp() {
+        spaceAccessCache = new SpaceAccessCache(30, 10, 100);
+        executor = Executors.newSingleThreadExecutor();
+        space = UUID.randomUUID();
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(SUBJECT, null));
+    }
+
+    @After
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testGetAllCredentialsReturnsSpaceCredentials() throws Exception {
+        CcSpace ccSpace = mock(CcSpace.class);
+        when(ccSpace.getGuid()).thenReturn(space);
+        when(ccOperations.getSpace(space)).thenReturn(Observable.just(ccSpace));
+        when(store.valuesInSpace(SERVICE_TYPE, space.toString())).thenReturn(ImmutableList.of(credentials("tested")));
+
+        ResponseEntity<?> response = await(controller(30000).getAllCredentials(space, SERVICE_TYPE));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(((Map<?, ?>) response.getBody()).containsKey("tested"));
+        assertEquals(Optional.of(true), spaceAccessCache.isMember(SUBJECT, space));
+    }
+
+    @Test
+    public void testGetAllCredentialsTimesOutWithServiceUnavailable() throws Exception {
+        when(ccOperations.getSpace(space)).thenReturn(Observable.never());
+
+        ResponseEntity<?> response = await(controller(100).getAllCredentials(space, SERVICE_TYPE));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+    }
+
+    @Test
+    public void testGetAllCredentialsRejectedWithServiceUnavailable() throws Exception {
+        when(ccOperations.getSpace(space)).thenReturn(Observable.never());
+        executor.shutdown();
+
+        ResponseEntity<?> response = await(controller(30000).getAllCredentials(space, SERVICE_TYPE));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+    }
+
+    @Test
+    public void testGetAllCredentialsServesCachedDenial() throws Exception {
+        spaceAccessCache.denied(SUBJECT, space);
+
+        ResponseEntity<?> response = await(controller(30000).getAllCredentials(space, SERVICE_TYPE));
+
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+        verify(ccOperations, never()).getSpace(space);
+    }
+
+    @Test
+    public void testGetAllCredentialsServesCachedGrant() throws Exception {
+        spaceAccessCache.granted(SUBJECT, space);
+        when(store.valuesInSpace(SERVICE_TYPE, space.toString())).thenReturn(ImmutableList.of(credentials("tested")));
+
+        ResponseEntity<?> response = await(controller(30000).getAllCredentials(space, SERVICE_TYPE));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(ccOperations, never()).getSpace(space);
+    }
+
+    @Test
+    public void testGetAllCredentialsInOrgSkipsOnlySpaceWithDuplicateNames() throws Exception {
+        UUID org = UUID.randomUUID();
+        UUID otherSpace = UUID.randomUUID();
+        CcSpace ccSpace = mock(CcSpace.class);
+        CcSpace otherCcSpace = mock(CcSpace.class);
+        when(ccSpace.getGuid()).thenReturn(space);
+        when(otherCcSpace.getGuid()).thenReturn(otherSpace);
+        when(ccOperations.getSpaces(org)).thenReturn(Observable.just(ccSpace, otherCcSpace));
+        CredentialProperties unique = new CredentialProperties(true, "", UUID.randomUUID().toString(), otherSpace.toString(), "unique", "", "", "", "", "");
+        when(store.values(SERVICE_TYPE)).thenReturn(ImmutableList.of(credentials("duplicated"), credentials("duplicated"), unique));
+
+        ResponseEntity<?> response = await(controller(30000).getAllCredentialsInOrg(org, SERVICE_TYPE));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        Collection<?> instances = (Collection<?>) response.getBody();
+        assertEquals(1, instances.size());
+        assertEquals("unique", ((Map<?, ?>) instances.iterator().next()).get("name"));
+    }
+
+    private CredentialsController controller(long asyncTimeoutMillis) {
+        return new CredentialsController(ccOperations, store, spaceAccessCache, executor, asyncTimeoutMillis);
+    }
+
+    private CredentialProperties credentials(String name) {
+        return new CredentialProperties(true, "", UUID.randomUUID().toString(), space.toString(), name, "", "", "", "", "");
+    }
+
+    private static ResponseEntity<?> await(DeferredResult<ResponseEntity<?>> result) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!result.hasResult()) {
+            assertTrue(System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+        return (ResponseEntity<?>) result.getResult();
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.trustedanalytics.serviceexposer.executor.ExecutorRegistry;
+import org.trustedanalytics.serviceexposer.executor.RejectionPolicy;
+import org.trustedanalytics.serviceexposer.metrics.ExposerMetrics;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ExecutorRegistryTests {
+
+    private ExposerMetrics metrics;
+    private ExecutorRegistry sut;
+
+    @Before
+    public void setUp() {
+        metrics = new ExposerMetrics();
+        sut = new ExecutorRegistry(metrics);
+    }
+
+    @After
+    public void tearDown() {
+        sut.shutdown();
+    }
+
+    @Test
+    public void testRejectionsCountedAndAborted() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ThreadPoolExecutor executor = sut.newExecutor("test", 1, 1, RejectionPolicy.ABORT);
+
+        executor.execute(() -> await(release));
+        executor.execute(() -> await(release));
+        try {
+            executor.execute(() -> await(release));
+        } catch (RejectedExecutionException expected) {
+        }
+        release.countDown();
+
+        assertEquals(1, metrics.getCount("executor.test.rejected"));
+    }
+
+    @Test
+    public void testCallerRunsWhenSaturated() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<String> overflowThread = new AtomicReference<>();
+        ThreadPoolExecutor executor = sut.newExecutor("test", 1, 1, RejectionPolicy.fromName("caller-runs"));
+
+        executor.execute(() -> await(release));
+        executor.execute(() -> await(release));
+        executor.execute(() -> overflowThread.set(Thread.currentThread().getName()));
+        release.countDown();
+
+        assertEquals(Thread.currentThread().getName(), overflowThread.get());
+        assertEquals(1, metrics.getCount("executor.test.rejected"));
+    }
+
+    @Test
+    public void testSaturationGaugesReported() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<String> workerThread = new AtomicReference<>();
+        ThreadPoolExecutor executor = sut.newExecutor("test", 1, 4, RejectionPolicy.ABORT);
+
+        executor.execute(() -> {
+            workerThread.set(Thread.currentThread().getName());
+            started.countDown();
+            await(release);
+        });
+        executor.execute(() -> await(release));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Map<String, Number> reported = sut.metrics().stream().collect(Collectors.toMap(Metric::getName, Metric::getValue));
+        release.countDown();
+
+        assertEquals("test-0", workerThread.get());
+        assertEquals(1, reported.get("gauge.executor.test.active").intValue());
+        assertEquals(1, reported.get("gauge.executor.test.queued").intValue());
+        assertEquals(3, reported.get("gauge.executor.test.queueRemaining").intValue());
+        assertEquals(1.0, reported.get("gauge.executor.test.utilization").doubleValue(), 0.0);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testDuplicateNameRejected() {
+        sut.newExecutor("test", 1, 1, RejectionPolicy.ABORT);
+        sut.newExecutor("test", 1, 1, RejectionPolicy.ABORT);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
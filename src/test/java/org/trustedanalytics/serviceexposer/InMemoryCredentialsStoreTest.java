@@ -0,0 +1,133 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
+import org.junit.Before;
+import org.junit.Test;
+import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialProperties;
+import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialsStore;
+import org.trustedanalytics.serviceexposer.keyvaluestore.InMemoryCredentialsStore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class InMemoryCredentialsStoreTest {
+
+    private static final String SERVICE_TYPE = "rstudio";
+
+    private CredentialsStore<CredentialProperties> sut;
+
+    @Before
+    public void setUp() {
+        sut = new InMemoryCredentialsStore<>(CredentialProperties::getSpaceGuid);
+    }
+
+    @Test
+    public void testPutWithoutCleanStore() {
+        UUID guid = UUID.randomUUID();
+        CredentialProperties entry = new CredentialProperties(true,"",guid.toString(),"","","","","","","");
+        sut.put(SERVICE_TYPE, guid, entry);
+
+        assertEquals(entry, sut.get(SERVICE_TYPE, guid));
+        assertEquals(Sets.newHashSet(guid), sut.existing(SERVICE_TYPE, ImmutableList.of(guid, UUID.randomUUID())));
+    }
+
+    @Test
+    public void testCleanStoreRemovesAllEntries() {
+        for (int i = 0; i < 10; i++) {
+            UUID guid = UUID.randomUUID();
+            sut.put(SERVICE_TYPE, guid, new CredentialProperties(true,"",guid.toString(),"","","","","","",""));
+        }
+        sut.cleanStore(SERVICE_TYPE);
+
+        assertTrue(sut.values(SERVICE_TYPE).isEmpty());
+    }
+
+    @Test
+    public void testConcurrentWritersReadersAndCleanStore() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        Set<UUID> written = ConcurrentHashMap.newKeySet();
+        List<Future<?>> tasks = new ArrayList<>();
+        for (int t = 0; t < 2; t++) {
+            tasks.add(executor.submit(() -> write(10000, written)));
+        }
+        tasks.add(executor.submit(() -> {
+            for (int i = 0; i < 1000; i++) {
+                sut.values(SERVICE_TYPE);
+                sut.getSurplusServicesGuids(SERVICE_TYPE, Sets.newHashSet());
+            }
+        }));
+        tasks.add(executor.submit(() -> {
+            for (int i = 0; i < 100; i++) {
+                sut.cleanStore(SERVICE_TYPE);
+            }
+        }));
+
+        for (Future<?> task : tasks) {
+            task.get();
+        }
+        assertEquals(20000, written.size());
+        assertConsistent(written);
+
+        long surviving = sut.count(SERVICE_TYPE);
+        Set<UUID> afterClean = ConcurrentHashMap.newKeySet();
+        List<Future<?>> writers = new ArrayList<>();
+        for (int t = 0; t < 2; t++) {
+            writers.add(executor.submit(() -> write(5000, afterClean)));
+        }
+        for (Future<?> writer : writers) {
+            writer.get();
+        }
+        executor.shutdown();
+
+        written.addAll(afterClean);
+        assertConsistent(written);
+        assertEquals(surviving + 10000, sut.count(SERVICE_TYPE));
+        assertEquals(afterClean, sut.existing(SERVICE_TYPE, afterClean));
+    }
+
+    private void write(int count, Set<UUID> written) {
+        for (int i = 0; i < count; i++) {
+            UUID guid = UUID.randomUUID();
+            sut.put(SERVICE_TYPE, guid, new CredentialProperties(true,"",guid.toString(),"","","","","","",""));
+            written.add(guid);
+        }
+    }
+
+    private void assertConsistent(Set<UUID> written) {
+        Map<UUID, CredentialProperties> entries = sut.entries(SERVICE_TYPE);
+        assertTrue(written.containsAll(entries.keySet()));
+        entries.forEach((guid, entry) -> assertEquals(guid.toString(), entry.getServiceInstaceGuid()));
+        assertEquals(entries.size(), sut.count(SERVICE_TYPE));
+        assertEquals(entries.size(), sut.values(SERVICE_TYPE).size());
+        assertEquals(entries.keySet(), sut.getSurplusServicesGuids(SERVICE_TYPE, Sets.newHashSet()).stream()
+                .map(UUID::fromString)
+                .collect(Collectors.toSet()));
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.boot.actuate.metrics.GaugeService;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialProperties;
+import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialsStore;
+import org.trustedanalytics.serviceexposer.keyvaluestore.InstrumentedCredentialsStore;
+import org.trustedanalytics.serviceexposer.metrics.ExposerMetrics;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.anyDouble;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class InstrumentedCredentialsStoreTest {
+
+    private static final String SERVICE_TYPE = "rstudio";
+
+    private CredentialsStore<CredentialProperties> sut;
+
+    private ExposerMetrics metrics;
+
+    @Mock
+    private CredentialsStore<CredentialProperties> delegate;
+
+    @Mock
+    private GaugeService gaugeService;
+
+    @Before
+    public void setUp() {
+        metrics = new ExposerMetrics(gaugeService);
+        sut = new InstrumentedCredentialsStore<>(delegate, metrics);
+    }
+
+    @Test
+    public void testOperationsCountedAndTimed() {
+        sut.values(SERVICE_TYPE);
+        sut.values(SERVICE_TYPE);
+
+        verify(delegate, times(2)).values(SERVICE_TYPE);
+        assertEquals(2, metrics.getCount("store.values"));
+        verify(gaugeService, times(2)).submit(eq("timer.store.values"), anyDouble());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testFailuresCountedAndRethrown() {
+        UUID guid = UUID.randomUUID();
+        doThrow(new IllegalStateException()).when(delegate).delete(SERVICE_TYPE, guid);
+
+        try {
+            sut.delete(SERVICE_TYPE, guid);
+        } finally {
+            assertEquals(1, metrics.getCount("store.delete.errors"));
+        }
+    }
+
+    @Test
+    public void testCountersPublishedAsMetrics() {
+        sut.exists(SERVICE_TYPE, UUID.randomUUID());
+
+        Map<String, Number> published = metrics.metrics().stream()
+                .collect(Collectors.toMap(Metric::getName, Metric::getValue));
+        assertEquals(1L, published.get("counter.store.exists"));
+    }
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer;
+
+import com.google.common.collect.ImmutableList;
+import nats.client.Nats;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialProperties;
+import org.trustedanalytics.serviceexposer.queue.NatsMessagingQueue;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class NatsMessagingQueueTests {
+
+    private static final String REGISTER = "router.register";
+    private static final String UNREGISTER = "router.unregister";
+
+    @Mock
+    private Nats nats;
+
+    private NatsMessagingQueue sut;
+
+    @Before
+    public void setUp() {
+        sut = new NatsMessagingQueue(nats);
+    }
+
+    @Test
+    public void testRegisterEachPathPublishesOneMessagePerExtractedRoute() {
+        CredentialProperties first = route(true, "first", "10.0.0.1");
+        CredentialProperties second = route(true, "second", "10.0.0.2");
+        CredentialProperties malformed = route(false, "malformed", "");
+
+        sut.registerEachPathInGoRouter(ImmutableList.of(first, second, malformed));
+
+        verify(nats).publish(REGISTER, first.toString());
+        verify(nats).publish(REGISTER, second.toString());
+        verify(nats, never()).publish(REGISTER, malformed.toString());
+        assertEquals(2, sut.getPublishedRoutes());
+    }
+
+    @Test
+    public void testRegisterEachPathReusesPayloadOfUnchangedRoute() {
+        CredentialProperties route = route(true, "tested", "10.0.0.1");
+
+        sut.registerEachPathInGoRouter(ImmutableList.of(route));
+        sut.registerEachPathInGoRouter(ImmutableList.of(route(true, "tested", "10.0.0.1")));
+
+        List<String> payloads = publishedPayloads(REGISTER, 2);
+        assertSame(payloads.get(0), payloads.get(1));
+    }
+
+    @Test
+    public void testRegisterEachPathRebuildsPayloadOfMovedRoute() {
+        CredentialProperties route = route(true, "tested", "10.0.0.1");
+        CredentialProperties moved = route(true, "tested", "10.0.0.2");
+
+        sut.registerEachPathInGoRouter(ImmutableList.of(route));
+        sut.registerEachPathInGoRouter(ImmutableList.of(moved));
+
+        List<String> payloads = publishedPayloads(REGISTER, 2);
+        assertNotSame(payloads.get(0), payloads.get(1));
+        assertEquals(moved.toString(), payloads.get(1));
+    }
+
+    @Test
+    public void testUnregisterDropsCachedPayload() {
+        CredentialProperties route = route(true, "tested", "10.0.0.1");
+
+        sut.registerPathInGoRouter(route);
+        sut.unregisterPathInGoRouter(route);
+        sut.registerPathInGoRouter(route);
+
+        verify(nats).publish(UNREGISTER, route.toString());
+        List<String> payloads = publishedPayloads(REGISTER, 2);
+        assertNotSame(payloads.get(0), payloads.get(1));
+    }
+
+    private List<String> publishedPayloads(String subject, int count) {
+        ArgumentCaptor<String> payloads = ArgumentCaptor.forClass(String.class);
+        verify(nats, times(count)).publish(eq(subject), payloads.capture());
+        return payloads.getAllValues();
+    }
+
+    private static CredentialProperties route(boolean extracted, String name, String ipAddress) {
+        return new CredentialProperties(extracted, ".example.com", name + "-guid", "space", name, ipAddress, "8080", "", "", "");
+    }
+}
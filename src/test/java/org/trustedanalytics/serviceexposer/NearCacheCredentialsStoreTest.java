@@ -0,0 +1,149 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.ValueOperations;
+import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialProperties;
+import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialsStore;
+import org.trustedanalytics.serviceexposer.keyvaluestore.InMemoryCredentialsStore;
+import org.trustedanalytics.serviceexposer.keyvaluestore.NearCacheCredentialsStore;
+
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class NearCacheCredentialsStoreTest {
+
+    private static final String SERVICE_TYPE = "rstudio";
+    private static final String VERSION_KEY = SERVICE_TYPE + ":version";
+
+    private CredentialsStore<CredentialProperties> backingStore;
+
+    @Mock
+    private RedisOperations<String, String> versionTemplate;
+
+    @Mock
+    private ValueOperations<String, String> versionOps;
+
+    @Before
+    public void setUp() {
+        when(versionTemplate.opsForValue()).thenReturn(versionOps);
+        when(versionOps.get(VERSION_KEY)).thenReturn("1");
+        backingStore = new InMemoryCredentialsStore<>(CredentialProperties::getSpaceGuid);
+    }
+
+    @Test
+    public void testSteadyStateReadsServedLocally() {
+        CredentialsStore<CredentialProperties> sut = nearCache(60000);
+        backingStore.put(SERVICE_TYPE, UUID.randomUUID(), credentials("space"));
+
+        assertEquals(1, sut.values(SERVICE_TYPE).size());
+        assertEquals(1, sut.values(SERVICE_TYPE).size());
+        assertEquals(1, sut.valuesInSpace(SERVICE_TYPE, "space").size());
+
+        verify(versionOps, times(1)).get(VERSION_KEY);
+    }
+
+    @Test
+    public void testWriteBumpsVersionAndInvalidatesSnapshot() {
+        CredentialsStore<CredentialProperties> sut = nearCache(60000);
+        UUID guid = UUID.randomUUID();
+        assertTrue(sut.values(SERVICE_TYPE).isEmpty());
+
+        sut.put(SERVICE_TYPE, guid, credentials("space"));
+
+        assertTrue(sut.exists(SERVICE_TYPE, guid));
+        verify(versionOps).increment(VERSION_KEY, 1);
+    }
+
+    @Test
+    public void testRemoteVersionChangeReloadedAfterStaleness() {
+        CredentialsStore<CredentialProperties> sut = nearCache(0);
+        assertTrue(sut.values(SERVICE_TYPE).isEmpty());
+
+        backingStore.put(SERVICE_TYPE, UUID.randomUUID(), credentials("space"));
+        assertTrue(sut.values(SERVICE_TYPE).isEmpty());
+
+        when(versionOps.get(VERSION_KEY)).thenReturn("2");
+        assertEquals(1, sut.values(SERVICE_TYPE).size());
+    }
+
+    @Test
+    public void testLocalWritesAppliedWithoutReload() {
+        backingStore = spy(backingStore);
+        CredentialsStore<CredentialProperties> sut = nearCache(60000);
+        assertTrue(sut.values(SERVICE_TYPE).isEmpty());
+        when(versionOps.increment(VERSION_KEY, 1)).thenReturn(2L, 3L, 4L);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+
+        sut.put(SERVICE_TYPE, first, credentials("space"));
+        sut.put(SERVICE_TYPE, second, credentials("space"));
+        sut.delete(SERVICE_TYPE, first);
+
+        assertFalse(sut.exists(SERVICE_TYPE, first));
+        assertTrue(sut.exists(SERVICE_TYPE, second));
+        assertEquals(1, sut.valuesInSpace(SERVICE_TYPE, "space").size());
+        verify(backingStore, times(1)).entries(SERVICE_TYPE);
+    }
+
+    @Test
+    public void testConcurrentRemoteWriteForcesReload() {
+        backingStore = spy(backingStore);
+        CredentialsStore<CredentialProperties> sut = nearCache(60000);
+        assertTrue(sut.values(SERVICE_TYPE).isEmpty());
+        backingStore.put(SERVICE_TYPE, UUID.randomUUID(), credentials("space"));
+        when(versionOps.increment(VERSION_KEY, 1)).thenReturn(3L);
+        when(versionOps.get(VERSION_KEY)).thenReturn("3");
+
+        sut.put(SERVICE_TYPE, UUID.randomUUID(), credentials("space"));
+
+        assertEquals(2, sut.values(SERVICE_TYPE).size());
+        verify(backingStore, times(2)).entries(SERVICE_TYPE);
+    }
+
+    @Test
+    public void testEntriesWithoutSpaceSkippedInSpaceIndex() {
+        CredentialsStore<CredentialProperties> sut = nearCache(60000);
+        backingStore.put(SERVICE_TYPE, UUID.randomUUID(), credentials(null));
+        backingStore.put(SERVICE_TYPE, UUID.randomUUID(), credentials("space"));
+
+        assertEquals(2, sut.values(SERVICE_TYPE).size());
+        assertEquals(1, sut.valuesInSpace(SERVICE_TYPE, "space").size());
+    }
+
+    private CredentialsStore<CredentialProperties> nearCache(long maxStalenessMillis) {
+        return new NearCacheCredentialsStore<>(backingStore, versionTemplate, CredentialProperties::getSpaceGuid, maxStalenessMillis);
+    }
+
+    private static CredentialProperties credentials(String space) {
+        return new CredentialProperties(true, ".example.com", UUID.randomUUID().toString(), space,
+                "name", "10.10.10.10", "8787", "", "login", "password");
+    }
+}
@@ -0,0 +1,186 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialProperties;
+import org.trustedanalytics.serviceexposer.retriver.ProvisioningPipeline;
+import org.trustedanalytics.serviceexposer.retriver.Submission;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ProvisioningPipelineTests {
+
+    private static final int CAPACITY = 2;
+
+    private ExecutorService keyStage;
+    private ExecutorService publishStage;
+    private CountDownLatch release;
+    private ProvisioningPipeline sut;
+
+    @Before
+    public void setUp() {
+        keyStage = Executors.newFixedThreadPool(CAPACITY);
+        publishStage = Executors.newSingleThreadExecutor();
+        release = new CountDownLatch(1);
+        sut = new ProvisioningPipeline(keyStage, publishStage, CAPACITY);
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        keyStage.shutdownNow();
+        publishStage.shutdownNow();
+    }
+
+    @Test
+    public void testSubmitSaturatedAtCapacity() throws Exception {
+        assertEquals(Submission.ACCEPTED, submitBlocked(UUID.randomUUID()));
+        assertEquals(Submission.ACCEPTED, submitBlocked(UUID.randomUUID()));
+        assertEquals(Submission.SATURATED, submitBlocked(UUID.randomUUID()));
+
+        release.countDown();
+        waitForDrain();
+
+        assertEquals(Submission.ACCEPTED, submitBlocked(UUID.randomUUID()));
+    }
+
+    @Test
+    public void testConcurrentSubmitsNeverExceedCapacity() throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Submission>> results = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            results.add(callers.submit(() -> {
+                start.await();
+                return submitBlocked(UUID.randomUUID());
+            }));
+        }
+        start.countDown();
+
+        int accepted = 0;
+        for (Future<Submission> result : results) {
+            if (result.get(5, TimeUnit.SECONDS) == Submission.ACCEPTED) {
+                accepted++;
+            }
+        }
+        callers.shutdownNow();
+        assertEquals(CAPACITY, accepted);
+        assertEquals(CAPACITY, sut.inFlight());
+    }
+
+    @Test
+    public void testSubmitSameGuidWhileInFlight() {
+        UUID guid = UUID.randomUUID();
+
+        assertEquals(Submission.ACCEPTED, submitBlocked(guid));
+        assertEquals(Submission.ALREADY_IN_FLIGHT, submitBlocked(guid));
+        assertEquals(1, sut.inFlight());
+    }
+
+    @Test
+    public void testFailureCallbackOnRetrieveError() throws Exception {
+        IllegalStateException error = new IllegalStateException("cc unavailable");
+        AtomicReference<CredentialProperties> published = new AtomicReference<>();
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        CountDownLatch failed = new CountDownLatch(1);
+
+        sut.submit(UUID.randomUUID(), () -> {
+            throw error;
+        }, published::set, e -> {
+            failure.set(e);
+            failed.countDown();
+        });
+
+        assertTrue(failed.await(5, TimeUnit.SECONDS));
+        assertEquals(error, failure.get());
+        assertNull(published.get());
+        waitForDrain();
+    }
+
+    @Test
+    public void testFailureCallbackOnPublishError() throws Exception {
+        IllegalStateException error = new IllegalStateException("store unavailable");
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        CountDownLatch failed = new CountDownLatch(1);
+
+        sut.submit(UUID.randomUUID(), this::credentials, credentials -> {
+            throw error;
+        }, e -> {
+            failure.set(e);
+            failed.countDown();
+        });
+
+        assertTrue(failed.await(5, TimeUnit.SECONDS));
+        assertEquals(error, failure.get());
+        waitForDrain();
+    }
+
+    @Test
+    public void testSubmitRejectedByExecutorReleasesReservation() {
+        keyStage.shutdown();
+
+        assertEquals(Submission.SATURATED, submitBlocked(UUID.randomUUID()));
+        assertEquals(0, sut.inFlight());
+    }
+
+    private Submission submitBlocked(UUID guid) {
+        Supplier<CredentialProperties> retrieve = () -> {
+            await(release);
+            return credentials();
+        };
+        Consumer<CredentialProperties> publish = credentials -> {
+        };
+        return sut.submit(guid, retrieve, publish, e -> {
+        });
+    }
+
+    private CredentialProperties credentials() {
+        return new CredentialProperties(true, "", "", "", "", "", "", "", "", "");
+    }
+
+    private void waitForDrain() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (sut.inFlight() > 0) {
+            assertTrue(System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
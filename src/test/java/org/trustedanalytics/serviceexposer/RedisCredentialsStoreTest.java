@@ -22,10 +22,14 @@ import com.google.common.collect.Sets;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.springframework.data.redis.core.HashOperations;
 import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.SetOperations;
 import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialProperties;
 import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialsStore;
 import org.trustedanalytics.serviceexposer.keyvaluestore.RedisCredentialsStore;
@@ -35,8 +39,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -55,10 +64,17 @@ public class RedisCredentialsStoreTest {
     @Mock
     private HashOperations<String, Object, Object> mockHashOps;
 
+    @Mock
+    private RedisOperations<String, String> indexTemplate;
+
+    @Mock
+    private SetOperations<String, String> mockSetOps;
+
     @Before
     public void setUp() {
         when(template.opsForHash()).thenReturn(mockHashOps);
-        sut = new RedisCredentialsStore<>(template);
+        when(indexTemplate.opsForSet()).thenReturn(mockSetOps);
+        sut = new RedisCredentialsStore<>(template, indexTemplate, CredentialProperties::getSpaceGuid);
     }
 
     @Test
@@ -104,4 +120,94 @@ public class RedisCredentialsStoreTest {
         Map actual = ImmutableMap.of(entry.getName(), entry.retriveMapForm());
         assertEquals(ref, actual);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testExistingServiceInstancesInSingleMultiGet() {
+        UUID existingGuid = UUID.randomUUID();
+        UUID missingGuid = UUID.randomUUID();
+        CredentialProperties existingEntry = new CredentialProperties(true,"",existingGuid.toString(),"","","","","","","");
+        List<Object> hashKeys = ImmutableList.of(existingGuid.toString(), missingGuid.toString());
+        when(mockHashOps.multiGet(SERVICE_TYPE, hashKeys)).thenReturn(Arrays.<Object>asList(existingEntry, null));
+
+        Set<UUID> existing = sut.existing(SERVICE_TYPE, ImmutableList.of(existingGuid, missingGuid));
+
+        assertEquals(Sets.newHashSet(existingGuid), existing);
+    }
+
+    @Test
+    public void testCountUsesHashLength() {
+        when(mockHashOps.size(SERVICE_TYPE)).thenReturn(10000L);
+
+        assertEquals(10000L, sut.count(SERVICE_TYPE));
+        verify(mockHashOps, never()).values(SERVICE_TYPE);
+    }
+
+    @Test
+    public void testCleanStoreDeletesWholeHash() {
+        sut.cleanStore(SERVICE_TYPE);
+        runTransactions();
+
+        verify(template).delete(SERVICE_TYPE);
+    }
+
+    @Test
+    public void testPutAllWritesHashAndSpaceIndexInOneTransaction() {
+        UUID guid1 = UUID.randomUUID();
+        UUID guid2 = UUID.randomUUID();
+        UUID guid3 = UUID.randomUUID();
+        Map<UUID, CredentialProperties> entries = ImmutableMap.of(
+                guid1, credentials(guid1, "space1"),
+                guid2, credentials(guid2, "space2"),
+                guid3, credentials(guid3, "space1"));
+        Map<String, CredentialProperties> hash = ImmutableMap.of(
+                guid1.toString(), entries.get(guid1),
+                guid2.toString(), entries.get(guid2),
+                guid3.toString(), entries.get(guid3));
+
+        sut.putAll(SERVICE_TYPE, entries);
+        verify(mockHashOps, never()).putAll(SERVICE_TYPE, hash);
+        runTransactions();
+
+        verifyInTransaction(transaction -> transaction.verify(mockHashOps).putAll(SERVICE_TYPE, hash));
+        verifyInTransaction(transaction -> transaction.verify(mockSetOps).add(SERVICE_TYPE + ":space:space1", guid1.toString(), guid3.toString()));
+        verifyInTransaction(transaction -> transaction.verify(mockSetOps).add(SERVICE_TYPE + ":space:space2", guid2.toString()));
+        verifyInTransaction(transaction -> transaction.verify(mockSetOps).add(SERVICE_TYPE + ":spaces", "space1"));
+        verifyInTransaction(transaction -> transaction.verify(mockSetOps).add(SERVICE_TYPE + ":spaces", "space2"));
+    }
+
+    @Test
+    public void testDeleteAllRemovesHashAndSpaceIndexInOneTransaction() {
+        UUID guid1 = UUID.randomUUID();
+        UUID guid2 = UUID.randomUUID();
+        UUID guid3 = UUID.randomUUID();
+        List<Object> hashKeys = ImmutableList.of(guid1.toString(), guid2.toString(), guid3.toString());
+        when(mockHashOps.multiGet(SERVICE_TYPE, hashKeys)).thenReturn(Arrays.<Object>asList(
+                credentials(guid1, "space1"), credentials(guid2, "space2"), credentials(guid3, "space1")));
+
+        sut.deleteAll(SERVICE_TYPE, ImmutableList.of(guid1, guid2, guid3));
+        verify(mockHashOps, never()).delete(SERVICE_TYPE, guid1.toString(), guid2.toString(), guid3.toString());
+        runTransactions();
+
+        verifyInTransaction(transaction -> transaction.verify(mockHashOps).delete(SERVICE_TYPE, guid1.toString(), guid2.toString(), guid3.toString()));
+        verifyInTransaction(transaction -> transaction.verify(mockSetOps).remove(SERVICE_TYPE + ":space:space1", guid1.toString(), guid3.toString()));
+        verifyInTransaction(transaction -> transaction.verify(mockSetOps).remove(SERVICE_TYPE + ":space:space2", guid2.toString()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void runTransactions() {
+        ArgumentCaptor<SessionCallback> session = ArgumentCaptor.forClass(SessionCallback.class);
+        verify(template, atLeastOnce()).executePipelined(session.capture());
+        session.getAllValues().forEach(callback -> callback.execute(template));
+    }
+
+    private static CredentialProperties credentials(UUID guid, String spaceGuid) {
+        return new CredentialProperties(true,"",guid.toString(),spaceGuid,"tested","","","","","");
+    }
+
+    private void verifyInTransaction(Consumer<InOrder> command) {
+        InOrder transaction = inOrder(template, mockHashOps, mockSetOps);
+        transaction.verify(template).multi();
+        command.accept(transaction);
+        transaction.verify(template).exec();
+    }
+}
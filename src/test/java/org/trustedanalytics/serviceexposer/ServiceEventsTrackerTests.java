@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.trustedanalytics.cloud.cc.api.CcExtendedServicePlan;
+import org.trustedanalytics.serviceexposer.checker.ServiceEventsTracker;
+import org.trustedanalytics.serviceexposer.checker.ServiceInstanceChanges;
+import org.trustedanalytics.serviceexposer.keyvaluestore.InMemoryCursorStore;
+import org.trustedanalytics.serviceexposer.retriver.ServiceEventsRetriver;
+import org.trustedanalytics.serviceexposer.retriver.ServiceInstanceEvent;
+import org.trustedanalytics.serviceexposer.retriver.ServicesRetriver;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ServiceEventsTrackerTests {
+
+    private static final String SERVICE_TYPE_RSTUDIO = "rstudio";
+    private static final String T0 = "2016-01-01T00:00:00Z";
+    private static final String T1 = "2016-01-01T00:00:05Z";
+
+    private final UUID servicePlanGuid = UUID.randomUUID();
+    private final UUID createdInstance = UUID.randomUUID();
+    private final UUID deletedInstance = UUID.randomUUID();
+
+    private ServiceEventsTracker sut;
+
+    @Mock
+    private ServiceEventsRetriver eventsRetriver;
+
+    @Mock
+    private ServicesRetriver servicesRetriver;
+
+    @Before
+    public void setup() {
+        CcExtendedServicePlan servicePlan = mock(CcExtendedServicePlan.class, RETURNS_DEEP_STUBS);
+        when(servicePlan.getMetadata().getGuid()).thenReturn(servicePlanGuid);
+        when(servicesRetriver.getServicePlans(SERVICE_TYPE_RSTUDIO)).thenReturn(ImmutableList.of(servicePlan));
+        when(eventsRetriver.getLatestEventTimestamp()).thenReturn(T0);
+        when(eventsRetriver.getServiceInstanceEvents(T0)).thenReturn(ImmutableList.of());
+
+        sut = new ServiceEventsTracker(eventsRetriver, servicesRetriver, new InMemoryCursorStore(), ImmutableList.of(SERVICE_TYPE_RSTUDIO));
+        sut.reset();
+    }
+
+    @Test
+    public void testPollTwice_lastEventNotReapplied() {
+        List<ServiceInstanceEvent> events = ImmutableList.of(
+                event(ServiceInstanceEvent.CREATE, createdInstance, servicePlanGuid, T1),
+                event(ServiceInstanceEvent.DELETE, deletedInstance, null, T1));
+        when(eventsRetriver.getServiceInstanceEvents(T0)).thenReturn(events);
+        when(eventsRetriver.getServiceInstanceEvents(T1)).thenReturn(events);
+
+        ServiceInstanceChanges first = sut.poll();
+        sut.listed(SERVICE_TYPE_RSTUDIO, ImmutableSet.of(createdInstance));
+        ServiceInstanceChanges second = sut.poll();
+
+        assertEquals(ImmutableSet.of(SERVICE_TYPE_RSTUDIO), first.getChangedServiceTypes());
+        assertEquals(ImmutableSet.of(deletedInstance), first.getDeletedServiceInstances());
+        assertTrue(second.getChangedServiceTypes().isEmpty());
+        assertTrue(second.getDeletedServiceInstances().isEmpty());
+    }
+
+    @Test
+    public void testPollTwice_eventWithoutPlanNotReapplied() {
+        List<ServiceInstanceEvent> events = ImmutableList.of(event(ServiceInstanceEvent.UPDATE, createdInstance, null, T1));
+        when(eventsRetriver.getServiceInstanceEvents(T0)).thenReturn(events);
+        when(eventsRetriver.getServiceInstanceEvents(T1)).thenReturn(events);
+
+        ServiceInstanceChanges first = sut.poll();
+        ServiceInstanceChanges second = sut.poll();
+
+        assertEquals(ImmutableSet.of(SERVICE_TYPE_RSTUDIO), first.getChangedServiceTypes());
+        assertTrue(second.getChangedServiceTypes().isEmpty());
+    }
+
+    @Test
+    public void testPoll_newEventAtCursorTimestampApplied() {
+        ServiceInstanceEvent applied = event(ServiceInstanceEvent.DELETE, deletedInstance, null, T1);
+        ServiceInstanceEvent late = event(ServiceInstanceEvent.DELETE, createdInstance, null, T1);
+        when(eventsRetriver.getServiceInstanceEvents(T0)).thenReturn(ImmutableList.of(applied));
+        when(eventsRetriver.getServiceInstanceEvents(T1)).thenReturn(ImmutableList.of(applied, late));
+
+        sut.poll();
+        ServiceInstanceChanges second = sut.poll();
+
+        assertEquals(ImmutableSet.of(createdInstance), second.getDeletedServiceInstances());
+    }
+
+    @Test
+    public void testReset_eventsAtLatestTimestampNotReapplied() {
+        List<ServiceInstanceEvent> events = ImmutableList.of(event(ServiceInstanceEvent.DELETE, deletedInstance, null, T1));
+        when(eventsRetriver.getLatestEventTimestamp()).thenReturn(T1);
+        when(eventsRetriver.getServiceInstanceEvents(T1)).thenReturn(events);
+
+        sut.reset();
+        ServiceInstanceChanges changes = sut.poll();
+
+        assertTrue(changes.getDeletedServiceInstances().isEmpty());
+    }
+
+    @Test
+    public void testDeferredInstancesKeptPending() {
+        List<ServiceInstanceEvent> events = ImmutableList.of(event(ServiceInstanceEvent.CREATE, createdInstance, servicePlanGuid, T1));
+        when(eventsRetriver.getServiceInstanceEvents(T0)).thenReturn(events);
+        when(eventsRetriver.getServiceInstanceEvents(T1)).thenReturn(events);
+
+        sut.poll();
+        sut.listed(SERVICE_TYPE_RSTUDIO, ImmutableSet.of(createdInstance));
+        sut.deferred(SERVICE_TYPE_RSTUDIO, ImmutableSet.of(createdInstance));
+        ServiceInstanceChanges second = sut.poll();
+
+        assertEquals(ImmutableSet.of(SERVICE_TYPE_RSTUDIO), second.getChangedServiceTypes());
+    }
+
+    private static ServiceInstanceEvent event(String type, UUID serviceInstanceGuid, UUID servicePlanGuid, String timestamp) {
+        return new ServiceInstanceEvent(UUID.randomUUID(), type, serviceInstanceGuid, servicePlanGuid, timestamp);
+    }
+}
@@ -19,6 +19,7 @@ import com.google.common.collect.ImmutableList;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialProperties;
@@ -26,9 +27,14 @@ import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialsStore;
 import org.trustedanalytics.serviceexposer.nats.registrator.RegistratorJob;
 import org.trustedanalytics.serviceexposer.queue.MessagingQueue;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Vector;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyCollection;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -69,7 +75,7 @@ public class ServicesRegistratorJobTests {
         List<CredentialProperties> credentials = ImmutableList.of(entry);
         when(store.values(SERVICE_TYPE_IPYTHON)).thenReturn(credentials);
         sut.run();
-        verify(natsOps).registerPathInGoRouter(entry);
+        assertTrue(registeredRoutes().contains(entry));
     }
 
     @Test
@@ -79,6 +85,41 @@ public class ServicesRegistratorJobTests {
         List<CredentialProperties> credentials = ImmutableList.of(entry);
         when(store.values(SERVICE_TYPE_RSTUDIO)).thenReturn(credentials);
         sut.run();
-        verify(natsOps).registerPathInGoRouter(entry);
+        assertTrue(registeredRoutes().contains(entry));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRegistratorJobPublishesOnlyChangedRoutesBetweenRefreshes(){
+
+        CredentialProperties entry = new CredentialProperties(true,"","","","rstudioInstance","10.0.0.1","8787","","","");
+        CredentialProperties moved = new CredentialProperties(true,"","","","rstudioInstance","10.0.0.2","8787","","","");
+        when(store.values(SERVICE_TYPE_RSTUDIO)).thenReturn(ImmutableList.of(entry), ImmutableList.of(entry), ImmutableList.of(moved));
+        sut.run();
+        sut.run();
+        sut.run();
+
+        ArgumentCaptor<Collection> routes = ArgumentCaptor.forClass(Collection.class);
+        verify(natsOps, times(2)).registerEachPathInGoRouter(routes.capture());
+        assertEquals(ImmutableList.of(moved), ImmutableList.copyOf((Collection<CredentialProperties>) routes.getValue()));
+    }
+
+    @Test
+    public void testRegistratorJobRepublishesAllRoutesAfterRouterStart(){
+
+        CredentialProperties entry = new CredentialProperties(true,"","","","rstudioInstance","10.0.0.1","8787","","","");
+        when(store.values(SERVICE_TYPE_RSTUDIO)).thenReturn(ImmutableList.of(entry));
+        sut.run();
+        sut.requestFullRefresh();
+        sut.run();
+
+        verify(natsOps, times(2)).registerEachPathInGoRouter(anyCollection());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Collection<CredentialProperties> registeredRoutes() {
+        ArgumentCaptor<Collection> routes = ArgumentCaptor.forClass(Collection.class);
+        verify(natsOps).registerEachPathInGoRouter(routes.capture());
+        return routes.getValue();
     }
 }
@@ -0,0 +1,95 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.trustedanalytics.cloud.cc.api.CcExtendedService;
+import org.trustedanalytics.cloud.cc.api.CcExtendedServicePlan;
+import org.trustedanalytics.cloud.cc.api.CcOperations;
+import org.trustedanalytics.serviceexposer.retriver.ServicesRetriver;
+import rx.Observable;
+
+import java.util.Collection;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ServicesRetriverTests {
+
+    private static final String SERVICE_TYPE_RSTUDIO = "rstudio";
+
+    private ServicesRetriver sut;
+
+    @Mock
+    private CcOperations ccClient;
+
+    @Mock
+    private CcExtendedServicePlan servicePlan;
+
+    @Before
+    public void setup() {
+        UUID serviceGuid = UUID.randomUUID();
+        CcExtendedService service = mock(CcExtendedService.class, RETURNS_DEEP_STUBS);
+        when(service.getEntity().getLabel()).thenReturn(SERVICE_TYPE_RSTUDIO);
+        when(service.getMetadata().getGuid()).thenReturn(serviceGuid);
+
+        when(ccClient.getExtendedServices()).thenReturn(Observable.just(service));
+        when(ccClient.getExtendedServicePlans(serviceGuid)).thenReturn(Observable.just(servicePlan));
+
+        sut = new ServicesRetriver(ccClient, ImmutableList.of(), 300);
+    }
+
+    @Test
+    public void testGetServicePlansServedFromCache() {
+        Collection<CcExtendedServicePlan> first = sut.getServicePlans(SERVICE_TYPE_RSTUDIO);
+        Collection<CcExtendedServicePlan> second = sut.getServicePlans(SERVICE_TYPE_RSTUDIO);
+
+        assertEquals(ImmutableList.of(servicePlan), ImmutableList.copyOf(first));
+        assertEquals(ImmutableList.copyOf(first), ImmutableList.copyOf(second));
+        verify(ccClient, times(1)).getExtendedServices();
+        assertEquals(1, sut.getCatalogCacheHits());
+        assertEquals(1, sut.getCatalogCacheMisses());
+    }
+
+    @Test
+    public void testGetServicePlansReloadedAfterInvalidation() {
+        sut.getServicePlans(SERVICE_TYPE_RSTUDIO);
+        sut.invalidateServicePlans(SERVICE_TYPE_RSTUDIO);
+        sut.getServicePlans(SERVICE_TYPE_RSTUDIO);
+
+        verify(ccClient, times(2)).getExtendedServices();
+        assertEquals(2, sut.getCatalogCacheMisses());
+    }
+
+    @Test
+    public void testGetServicePlansNotCachedForUnknownServiceType() {
+        sut.getServicePlans("unknown");
+        sut.getServicePlans("unknown");
+
+        verify(ccClient, times(2)).getExtendedServices();
+    }
+}
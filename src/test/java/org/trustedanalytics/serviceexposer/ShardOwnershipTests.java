@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.trustedanalytics.serviceexposer.cluster.ClusterMembership;
+import org.trustedanalytics.serviceexposer.cluster.ConsistentHashRing;
+import org.trustedanalytics.serviceexposer.cluster.ShardOwnership;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ShardOwnershipTests {
+
+    private static final List<String> MEMBERS = ImmutableList.of("node-a", "node-b", "node-c");
+    private static final int KEYS = 3000;
+
+    @Mock
+    private ClusterMembership membership;
+
+    @Test
+    public void testEveryKeyOwnedByExactlyOneMember() {
+        Map<String, Integer> owned = new HashMap<>();
+        for (String member : MEMBERS) {
+            ShardOwnership sut = ownership(member, MEMBERS);
+            int count = 0;
+            for (int i = 0; i < KEYS; i++) {
+                if (sut.owns(key(i))) {
+                    count++;
+                }
+            }
+            owned.put(member, count);
+        }
+
+        assertEquals(KEYS, owned.values().stream().mapToInt(Integer::intValue).sum());
+        owned.values().forEach(count -> assertTrue(count > KEYS / 6));
+    }
+
+    @Test
+    public void testMemberLeavingMovesOnlyItsKeys() {
+        ConsistentHashRing before = new ConsistentHashRing(MEMBERS, 128);
+        ConsistentHashRing after = new ConsistentHashRing(ImmutableList.of("node-a", "node-b"), 128);
+
+        for (int i = 0; i < KEYS; i++) {
+            String owner = before.owner(key(i));
+            if (!"node-c".equals(owner)) {
+                assertEquals(owner, after.owner(key(i)));
+            }
+        }
+    }
+
+    @Test
+    public void testSingleMemberOwnsEverything() {
+        ShardOwnership sut = ownership("node-a", ImmutableList.of("node-a"));
+
+        assertTrue(sut.owns(UUID.randomUUID()));
+    }
+
+    private ShardOwnership ownership(String localMember, List<String> liveMembers) {
+        when(membership.getLocalMemberId()).thenReturn(localMember);
+        when(membership.getLiveMembers()).thenReturn(liveMembers);
+        return new ShardOwnership(membership, 128);
+    }
+
+    private static String key(int i) {
+        return new UUID(i, i * 31L).toString();
+    }
+}
@@ -19,6 +19,7 @@ import com.google.common.collect.ImmutableList;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialProperties;
@@ -26,9 +27,11 @@ import org.trustedanalytics.serviceexposer.keyvaluestore.CredentialsStore;
 import org.trustedanalytics.serviceexposer.nats.registrator.RegistratorJob;
 import org.trustedanalytics.serviceexposer.queue.MessagingQueue;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Vector;
 
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -69,7 +72,7 @@ public class ToolsRegistratorJobTests {
         when(store.values(SERVICE_TYPE_IPYTHON)).thenReturn(new Vector<CredentialProperties>());
         when(store.values(SERVICE_TYPE_RSTUDIO)).thenReturn(new Vector<CredentialProperties>());
         sut.run();
-        verify(natsOps).registerPathInGoRouter(hueEntry);
+        assertTrue(registeredRoutes().contains(hueEntry));
     }
 
     @Test
@@ -77,6 +80,13 @@ public class ToolsRegistratorJobTests {
         when(store.values(SERVICE_TYPE_IPYTHON)).thenReturn(new Vector<CredentialProperties>());
         when(store.values(SERVICE_TYPE_RSTUDIO)).thenReturn(new Vector<CredentialProperties>());
         sut.run();
-        verify(natsOps).registerPathInGoRouter(arcadiaEntry);
+        assertTrue(registeredRoutes().contains(arcadiaEntry));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Collection<CredentialProperties> registeredRoutes() {
+        ArgumentCaptor<Collection> routes = ArgumentCaptor.forClass(Collection.class);
+        verify(natsOps).registerEachPathInGoRouter(routes.capture());
+        return routes.getValue();
     }
 }
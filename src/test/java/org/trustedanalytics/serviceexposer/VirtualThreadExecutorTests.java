@@ -0,0 +1,135 @@
+/**
+ * Copyright (c) 2015 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trustedanalytics.serviceexposer;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.trustedanalytics.serviceexposer.executor.VirtualThreadExecutor;
+import org.trustedanalytics.serviceexposer.executor.VirtualThreads;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class VirtualThreadExecutorTests {
+
+    private VirtualThreadExecutor sut;
+
+    private AtomicInteger saturations;
+
+    @Before
+    public void setUp() {
+        saturations = new AtomicInteger();
+        sut = new VirtualThreadExecutor(Thread::new, 2, saturations::incrementAndGet);
+    }
+
+    @After
+    public void tearDown() {
+        sut.shutdownNow();
+    }
+
+    @Test
+    public void testConcurrencyBounded() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(2);
+
+        for (int i = 0; i < 2; i++) {
+            sut.execute(() -> {
+                await(release);
+                done.countDown();
+            });
+        }
+        waitFor(() -> sut.getActiveCount() == 2);
+        try {
+            sut.execute(() -> {
+            });
+            fail();
+        } catch (RejectedExecutionException e) {
+            assertEquals(1, sut.getRejectedCount());
+            assertEquals(1, saturations.get());
+        }
+        release.countDown();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        waitFor(() -> sut.getCompletedTaskCount() == 2 && sut.getActiveCount() == 0);
+    }
+
+    @Test
+    public void testAcceptsAgainAfterPermitsReleased() throws Exception {
+        CountDownLatch done = new CountDownLatch(3);
+        for (int i = 0; i < 2; i++) {
+            sut.execute(done::countDown);
+        }
+        waitFor(() -> sut.getCompletedTaskCount() == 2);
+
+        sut.execute(done::countDown);
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(0, sut.getRejectedCount());
+    }
+
+    @Test
+    public void testTerminatesAfterShutdown() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        sut.execute(() -> await(release));
+
+        sut.shutdown();
+        release.countDown();
+
+        assertTrue(sut.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void testRejectedAfterShutdown() {
+        sut.shutdown();
+        sut.execute(() -> {
+        });
+    }
+
+    @Test
+    public void testVirtualThreadsNamed() {
+        Assume.assumeTrue(VirtualThreads.isSupported());
+
+        Thread thread = VirtualThreads.threadFactory("test").newThread(() -> {
+        });
+
+        assertEquals("test-0", thread.getName());
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}